@@ -0,0 +1,131 @@
+package com.example.mcpgateway.mcp;
+
+import com.example.mcpgateway.dto.OllamaChatRequest;
+import com.example.mcpgateway.dto.RawJson;
+import com.example.mcpgateway.service.BenchmarkData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of putting the tool definitions into an LLM request: rebuilt and serialized per request
+ * versus the registry's pre-serialized definitions, and the cost of a registry change
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolSchemaBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int tools;
+
+    private ObjectMapper objectMapper;
+    private MCPServerConfig config;
+    private List<OllamaChatRequest.ChatMessage> messages;
+    private MCPTool replacement;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        BenchmarkData.quietLogging();
+        objectMapper = new ObjectMapper();
+
+        List<MCPTool> registered = new ArrayList<>();
+        for (int i = 0; i < tools; i++) {
+            registered.add(new StubTool("stub_tool_" + i));
+        }
+        config = new MCPServerConfig(registered, objectMapper, event -> {});
+        replacement = new StubTool("stub_tool_0");
+
+        messages = List.of(
+                OllamaChatRequest.PrecomputedMessage.of("system", "You MUST use the available tools when relevant.", objectMapper),
+                new OllamaChatRequest.Message("user", "What is the exchange rate from EUR to USD?"));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> buildDefinitions() {
+        return config.getToolsAsOpenAIFormat();
+    }
+
+    /**
+     * A request body with the definitions rebuilt and serialized for it, as every call used to do
+     */
+    @Benchmark
+    public byte[] requestWithRebuiltDefinitions() throws JsonProcessingException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", "deepseek/deepseek-chat");
+        body.put("messages", messages);
+        body.put("tools", config.getToolsAsOpenAIFormat());
+        body.put("tool_choice", "auto");
+        body.put("stream", false);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] requestWithPrecomputedDefinitions() throws JsonProcessingException {
+        OllamaChatRequest request = new OllamaChatRequest("deepseek/deepseek-chat", messages);
+        request.setTools(config.getToolDefinitions());
+        request.setTool_choice("auto");
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    /**
+     * Hot redeploy of one tool: new snapshot plus re-serialized definitions
+     */
+    @Benchmark
+    public RawJson replaceTool() {
+        config.register(replacement);
+        return config.getToolDefinitions();
+    }
+
+    /**
+     * Schema shaped like get_exchange_rates
+     */
+    private record StubTool(String name) implements MCPTool {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Stub tool " + name + " for benchmarks. Looks up records by key and optional filters, "
+                    + "returns matching records and their attributes.";
+        }
+
+        @Override
+        public Map<String, Object> getInputSchema() {
+            return Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "key", Map.of("type", "string", "description", "Record key (e.g., USD, EUR). Optional."),
+                    "filter", Map.of("type", "string", "description", "Optional filter on the record attributes.")
+                )
+            );
+        }
+
+        @Override
+        public String execute(Map<String, Object> arguments) {
+            return "ok";
+        }
+    }
+}
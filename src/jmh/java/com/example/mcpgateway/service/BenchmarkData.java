@@ -0,0 +1,70 @@
+package com.example.mcpgateway.service;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Synthetic inputs shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    // USD and EUR come first so pair and "from" lookups hit real rows
+    private static final int CURRENCIES = 128;
+    private static final String[] CODES = new String[CURRENCIES];
+
+    static {
+        CODES[0] = "USD";
+        CODES[1] = "EUR";
+        for (int i = 2; i < CURRENCIES; i++) {
+            CODES[i] = "" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26) + 'X';
+        }
+    }
+
+    private BenchmarkData() {}
+
+    /**
+     * The tools log every call at INFO - with the default console logging that would be most of the measured time
+     */
+    public static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * One of the currency codes used in {@link #exchangeRatePage(int)}, wrapping around
+     */
+    public static String currencyCode(int i) {
+        return CODES[Math.floorMod(i, CURRENCIES)];
+    }
+
+    /**
+     * One page of the payment gateway's exchange-rate endpoint, in its nested page-metadata layout
+     */
+    public static byte[] exchangeRatePage(int rows) {
+        StringBuilder json = new StringBuilder(rows * 220);
+        json.append("{\"content\":[");
+        for (int row = 0; row < rows; row++) {
+            // Distinct pairs up to CURRENCIES * (CURRENCIES - 1) rows
+            int from = row % CURRENCIES;
+            int to = (from + 1 + row / CURRENCIES) % CURRENCIES;
+            if (row > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(row)
+                    .append(",\"fromCurrencyAlphabeticCode\":\"").append(CODES[from])
+                    .append("\",\"fromCurrencyNumericCode\":\"").append(String.format(Locale.ROOT, "%03d", from))
+                    .append("\",\"toCurrencyAlphabeticCode\":\"").append(CODES[to])
+                    .append("\",\"toCurrencyNumericCode\":\"").append(String.format(Locale.ROOT, "%03d", to))
+                    .append("\",\"exchangeRate\":").append(String.format(Locale.ROOT, "%.6f", 0.5 + (row % 997) / 997.0))
+                    .append(",\"paymentMethods\":[\"CARD\",\"SEPA\",\"PAYPAL\",\"APPLE_PAY\",\"GOOGLE_PAY\",\"BANK_TRANSFER\"]")
+                    .append(",\"updatedAt\":\"2024-10-01T12:00:00Z\"}");
+        }
+        json.append("],\"page\":{\"size\":").append(rows)
+                .append(",\"number\":0,\"totalElements\":").append(rows)
+                .append(",\"totalPages\":1}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+import com.example.mcpgateway.mcp.MCPServerConfig;
+import com.example.mcpgateway.mcp.MCPTool;
+import com.example.mcpgateway.trace.Tracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Overhead of fanning tool calls out through the guards (bulkhead, breaker, deadline,
+ * coalescing) on virtual threads, with stub tools that either return at once or wait
+ * like a remote call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchAllBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int calls;
+
+    @Param({"0", "1000"})
+    private long toolLatencyMicros;
+
+    private AnnotationConfigApplicationContext context;
+    private ToolDispatchService dispatchService;
+    private List<ToolCall> toolCalls;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+
+        // The real wiring, so @Value defaults and @PostConstruct apply as in the application
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.registerBean("askExecutor", ExecutorService.class, Executors::newVirtualThreadPerTaskExecutor);
+        context.registerBean(ObjectMapper.class, () -> new ObjectMapper());
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(PipelineMetrics.class);
+        context.registerBean(Tracer.class, () -> new Tracer(false, 1, 1));
+        context.registerBean(StubTool.class, () -> new StubTool(toolLatencyMicros));
+        context.registerBean(MCPServerConfig.class);
+        context.registerBean(ToolDispatchService.class);
+        context.refresh();
+        dispatchService = context.getBean(ToolDispatchService.class);
+
+        // Distinct arguments, so no call is coalesced with another
+        toolCalls = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            toolCalls.add(new ToolCall("call_" + i, StubTool.NAME, Map.of("key", "K" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ToolResult> dispatchAll() {
+        return dispatchService.dispatchAll(toolCalls);
+    }
+
+    static final class StubTool implements MCPTool {
+        static final String NAME = "stub_lookup";
+
+        private final long latencyNanos;
+
+        StubTool(long latencyMicros) {
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Benchmark stub";
+        }
+
+        @Override
+        public Map<String, Object> getInputSchema() {
+            return Map.of("type", "object", "properties", Map.of("key", Map.of("type", "string")));
+        }
+
+        @Override
+        public String execute(Map<String, Object> arguments) {
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            return "Found 1 record for " + arguments.get("key");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import com.example.mcpgateway.trace.Tracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The get_exchange_rates path in its three stages: decoding a gateway page, indexing and
+ * filtering the rows, and formatting the tool output
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRatesToolBenchmark {
+
+    /**
+     * Serves a fixed snapshot, so the tool never reaches for the gateway
+     */
+    // Outside a trace every span is a no-op, which is what the benchmark measures
+    private static final Tracer TRACER = new Tracer(false, 1, 1);
+
+    static final class FixedSnapshotService extends ExchangeRateSnapshotService {
+        private final Snapshot snapshot;
+
+        FixedSnapshotService(Snapshot snapshot, ObjectMapper objectMapper) {
+            super(RestClient.create(), null, null, objectMapper, event -> {},
+                    new PipelineMetrics(new SimpleMeterRegistry()), TRACER);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void scheduleRefresh() {
+            // Nothing to refresh - also keeps it usable as a bean without a scheduler
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    private byte[] page;
+    private ExchangeRatePageDecoder decoder;
+    private ObjectMapper legacyMapper;
+    private List<ExchangeRate> rates;
+    private ExchangeRateIndex index;
+    private GetExchangeRatesTool tool;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData.quietLogging();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        page = BenchmarkData.exchangeRatePage(rows);
+        decoder = new ExchangeRatePageDecoder(objectMapper);
+        legacyMapper = new ObjectMapper();
+        rates = new ArrayList<>(rows);
+        decoder.decode(new ByteArrayInputStream(page), rates::add);
+        index = ExchangeRateIndex.of(rates);
+        tool = new GetExchangeRatesTool(new FixedSnapshotService(
+                new ExchangeRateSnapshotService.Snapshot(index, Instant.now()), objectMapper), TRACER);
+    }
+
+    @Benchmark
+    public int decodePage(Blackhole blackhole) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(page), blackhole::consume).rows();
+    }
+
+    /**
+     * The decoding the streaming decoder replaced: body as a String, parsed into a Map, then each
+     * row written back to JSON and read as an ExchangeRate. Compare gc.alloc.rate.norm with decodePage.
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int decodePageLegacy(Blackhole blackhole) throws IOException {
+        String responseBody = new String(page, StandardCharsets.UTF_8);
+        Map<String, Object> paginatedResponse = legacyMapper.readValue(responseBody, Map.class);
+        List<Map<String, Object>> contentList = (List<Map<String, Object>>) paginatedResponse.get("content");
+        for (Map<String, Object> item : contentList) {
+            String json = legacyMapper.writeValueAsString(item);
+            blackhole.consume(legacyMapper.readValue(json, ExchangeRate.class));
+        }
+        return contentList.size();
+    }
+
+    @Benchmark
+    public ExchangeRateIndex buildIndex() {
+        return ExchangeRateIndex.of(rates);
+    }
+
+    /**
+     * Index lookups take nanoseconds - in microseconds they would round to 0.002
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public List<ExchangeRate> findPair() {
+        return index.find("USD", "EUR");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public List<ExchangeRate> findFrom() {
+        return index.find("USD", null);
+    }
+
+    @Benchmark
+    public String executePair() {
+        return tool.execute(Map.of("fromCurrency", "usd", "toCurrency", "eur"));
+    }
+
+    @Benchmark
+    public String executeFrom() {
+        return tool.execute(Map.of("fromCurrency", "usd"));
+    }
+
+    /**
+     * Formats every row - the case that grows with the page size
+     */
+    @Benchmark
+    public String executeAll() {
+        return tool.execute(Map.of());
+    }
+}
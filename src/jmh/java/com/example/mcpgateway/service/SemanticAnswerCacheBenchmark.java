@@ -0,0 +1,118 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semantic cache lookups as the index fills up. The questions share a few templates, so the
+ * LSH buckets a lookup scores grow with the index like they would with real traffic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemanticAnswerCacheBenchmark {
+
+    private static final String[] TEMPLATES = {
+            "what is the exchange rate from %s to %s",
+            "how much is 1 %s in %s",
+            "convert 100 %s into %s",
+            "is there a rate for %s to %s",
+    };
+
+    @Param({"100", "1000", "10000"})
+    private int entries;
+
+    private AnnotationConfigApplicationContext context;
+    private SemanticAnswerCache cache;
+    private String paraphrase;
+    private String unseenPair;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData.quietLogging();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Every code of the generated questions is a known currency of the snapshot
+        List<ExchangeRate> rates = new ArrayList<>();
+        new ExchangeRatePageDecoder(objectMapper).decode(
+                new ByteArrayInputStream(BenchmarkData.exchangeRatePage(1000)), rates::add);
+        ExchangeRateSnapshotService.Snapshot snapshot =
+                new ExchangeRateSnapshotService.Snapshot(ExchangeRateIndex.of(rates), Instant.now());
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("llm.semantic-cache.max-entries", entries)));
+        context.registerBean(ExchangeRateSnapshotService.class,
+                () -> new ExchangeRatesToolBenchmark.FixedSnapshotService(snapshot, objectMapper));
+        context.registerBean(SemanticAnswerCache.class);
+        context.refresh();
+        cache = context.getBean(SemanticAnswerCache.class);
+
+        for (int i = 0; i < entries; i++) {
+            cache.put(question(i), "answer " + i, Set.of(GetExchangeRatesTool.NAME), cache.generation());
+        }
+
+        // Entry 0 ("what is the exchange rate from usd to eur") asked another way, and a question
+        // whose currencies no entry has in that order
+        paraphrase = QuestionNormalizer.normalize("How much is a US dollar in euros?");
+        unseenPair = QuestionNormalizer.normalize("What is the exchange rate from EUR to USD?");
+        if (cache.get(paraphrase) == null || cache.get(unseenPair) != null) {
+            throw new IllegalStateException("Benchmark questions do not hit and miss as intended");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String lookupHit() {
+        return cache.get(paraphrase);
+    }
+
+    @Benchmark
+    public String lookupMiss() {
+        return cache.get(unseenPair);
+    }
+
+    /**
+     * Distinct pairs as in {@link BenchmarkData#exchangeRatePage(int)}, so entry 0 is USD to EUR and
+     * EUR to USD only comes after 16k entries; the templates take turns
+     */
+    private static String question(int i) {
+        int from = i % 128;
+        int to = from + 1 + i / 128;
+        return QuestionNormalizer.normalize(String.format(TEMPLATES[i % TEMPLATES.length],
+                BenchmarkData.currencyCode(from), BenchmarkData.currencyCode(to)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatResponse;
+import com.example.mcpgateway.dto.ToolCall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a chat completion that asks for tool calls, as OpenRouter returns it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolCallParserBenchmark {
+
+    @Param({"1", "3"})
+    private int toolCalls;
+
+    private byte[] body;
+    private ObjectReader responseReader;
+    private ToolCallParser parser;
+    private OllamaChatResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData.quietLogging();
+        ObjectMapper objectMapper = new ObjectMapper();
+        responseReader = objectMapper.readerFor(OllamaChatResponse.class);
+        parser = new ToolCallParser(objectMapper);
+        body = completion(toolCalls).getBytes(StandardCharsets.UTF_8);
+        response = responseReader.readValue(body);
+    }
+
+    @Benchmark
+    public OllamaChatResponse readResponse() throws IOException {
+        return responseReader.readValue(body);
+    }
+
+    @Benchmark
+    public List<ToolCall> extractToolCalls() {
+        return parser.parse(response);
+    }
+
+    @Benchmark
+    public List<ToolCall> readAndExtract() throws IOException {
+        return parser.parse(responseReader.readValue(body));
+    }
+
+    private static String completion(int toolCalls) {
+        String[][] pairs = {{"EUR", "USD"}, {"USD", "HUF"}, {"GBP", "USD"}};
+        StringBuilder calls = new StringBuilder();
+        for (int i = 0; i < toolCalls; i++) {
+            if (i > 0) {
+                calls.append(',');
+            }
+            String[] pair = pairs[i % pairs.length];
+            calls.append("{\"index\":").append(i)
+                    .append(",\"id\":\"call_9f2c1a7b").append(i)
+                    .append("\",\"type\":\"function\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":")
+                    .append("\"{\\\"fromCurrency\\\": \\\"").append(pair[0])
+                    .append("\\\", \\\"toCurrency\\\": \\\"").append(pair[1]).append("\\\"}\"}}");
+        }
+        return "{\"id\":\"gen-1728912345-AbCdEfGhIjKlMnOp\",\"provider\":\"DeepInfra\",\"model\":\"deepseek/deepseek-chat\","
+                + "\"object\":\"chat.completion\",\"created\":1728912345,"
+                + "\"choices\":[{\"logprobs\":null,\"finish_reason\":\"tool_calls\",\"native_finish_reason\":\"tool_calls\",\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"\",\"refusal\":null,\"tool_calls\":[" + calls + "]}}],"
+                + "\"usage\":{\"prompt_tokens\":412,\"completion_tokens\":38,\"total_tokens\":450}}";
+    }
+}
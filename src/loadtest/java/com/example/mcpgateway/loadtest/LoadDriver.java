@@ -0,0 +1,240 @@
+package com.example.mcpgateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are started on a fixed arrival schedule whether or not earlier ones
+ * have finished, and latency is measured from the scheduled start - so time spent queued behind
+ * a slow server counts, instead of the driver politely slowing down with it.
+ */
+public class LoadDriver {
+
+    /**
+     * Weighted question templates; %1$s / %2$s are two distinct currencies
+     */
+    public record Question(String template, int weight) {}
+
+    public static final List<Question> DEFAULT_MIX = List.of(
+            new Question("What is the %1$s to %2$s exchange rate?", 5),
+            new Question("Which payment methods can I use to convert %1$s into %2$s?", 3),
+            new Question("How much is 250 %1$s in %2$s if I go through USD?", 1),
+            new Question("Show me all exchange rates from %1$s", 1),
+            new Question("What can you help me with?", 1));
+
+    /**
+     * Status key of a 200 whose answer is an error - the gateway reports failed questions with 200
+     */
+    public static final String FAILED_ANSWER = "200 failed";
+
+    /**
+     * Outcome of one load step
+     */
+    public record Report(double targetRate, long sent, long completed, double throughput,
+                         Map<String, Long> statuses, double p50Ms, double p99Ms, double p999Ms, double maxMs,
+                         int maxInFlight, double peakHeapMb) {
+
+        public String format() {
+            return String.format(Locale.ROOT,
+                    "rate %7.1f/s  sent %6d  ok %6d  throughput %7.1f/s  p50 %8.1f ms  p99 %8.1f ms  p99.9 %8.1f ms  max %8.1f ms  "
+                            + "in flight %5d  heap %6.0f MB  %s",
+                    targetRate, sent, completed, throughput, p50Ms, p99Ms, p999Ms, maxMs, maxInFlight, peakHeapMb, statuses);
+        }
+    }
+
+    private final URI target;
+    private final Duration requestTimeout;
+    private final List<Question> mix;
+    private final List<String> currencies;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LoadDriver(URI target, Duration requestTimeout, List<Question> mix, List<String> currencies) {
+        this.target = target;
+        this.requestTimeout = requestTimeout;
+        this.mix = mix;
+        this.currencies = currencies;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Sends requests at ratePerSecond for the given duration and waits for the stragglers
+     */
+    public Report run(double ratePerSecond, Duration duration, long seed) throws InterruptedException {
+        int total = (int) Math.max(1, Math.round(ratePerSecond * duration.toNanos() / 1e9));
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        Random random = new Random(seed);
+
+        long[] latencies = new long[total];
+        Arrays.fill(latencies, -1);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        HeapSampler heap = new HeapSampler();
+
+        long start = System.nanoTime();
+        try (heap; ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                int index = i;
+                String body = body(nextQuestion(random));
+                executor.execute(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    String status = send(body);
+                    inFlight.decrementAndGet();
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    if ("200".equals(status)) {
+                        latencies[index] = System.nanoTime() - scheduled;
+                        completed.incrementAndGet();
+                    }
+                });
+            }
+            // Closing the executor waits for every request still in flight
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] ok = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> statusCounts.put(entry.getKey(), entry.getValue().sum()));
+
+        return new Report(ratePerSecond, total, completed.get(), completed.get() / (elapsed / 1e9),
+                statusCounts, percentileMs(ok, 0.50), percentileMs(ok, 0.99), percentileMs(ok, 0.999),
+                ok.length == 0 ? -1 : ok[ok.length - 1] / 1e6, maxInFlight.get(), heap.peakBytes() / 1048576.0);
+    }
+
+    /**
+     * Highest heap use seen during a step, sampled every 100 ms. Driver, stubs and gateway share
+     * the JVM, so this is an upper bound for the gateway.
+     */
+    private static final class HeapSampler implements AutoCloseable {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private final Thread sampler = Thread.ofPlatform().daemon().name("heap-sampler").start(this::sample);
+
+        private void sample() {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                LockSupport.parkNanos(100_000_000L);
+            }
+        }
+
+        long peakBytes() {
+            return peak.get();
+        }
+
+        @Override
+        public void close() {
+            sampler.interrupt();
+        }
+    }
+
+    private String send(String body) {
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            // Streamed answers count as done once the whole event stream has arrived
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 && !answered(response)) {
+                return FAILED_ANSWER;
+            }
+            return String.valueOf(response.statusCode());
+        } catch (java.net.http.HttpTimeoutException e) {
+            return "timeout";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return "error";
+        }
+    }
+
+    /**
+     * Whether a 200 carries an answer: a blocking answer that is not an error message, or an
+     * event stream that ended with "done" rather than "error"
+     */
+    private boolean answered(HttpResponse<String> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (contentType.startsWith("text/event-stream")) {
+            String lastEvent = null;
+            for (String line : response.body().split("\n")) {
+                if (line.startsWith("event:")) {
+                    lastEvent = line.substring(6).trim();
+                }
+            }
+            return "done".equals(lastEvent);
+        }
+        try {
+            String answer = objectMapper.readTree(response.body()).path("answer").asText("");
+            return !answer.isBlank() && !answer.regionMatches(true, 0, "Error", 0, 5) && !answer.startsWith("EXCEPTION");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private String nextQuestion(Random random) {
+        int totalWeight = mix.stream().mapToInt(Question::weight).sum();
+        int pick = random.nextInt(totalWeight);
+        Question question = mix.get(mix.size() - 1);
+        for (Question candidate : mix) {
+            pick -= candidate.weight();
+            if (pick < 0) {
+                question = candidate;
+                break;
+            }
+        }
+
+        String from = currencies.get(random.nextInt(currencies.size()));
+        String to;
+        do {
+            to = currencies.get(random.nextInt(currencies.size()));
+        } while (to.equals(from));
+        return String.format(Locale.ROOT, question.template(), from, to);
+    }
+
+    private String body(String question) {
+        return objectMapper.createObjectNode().put("question", question).toString();
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
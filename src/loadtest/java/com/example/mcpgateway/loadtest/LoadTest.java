@@ -0,0 +1,170 @@
+package com.example.mcpgateway.loadtest;
+
+import com.example.mcpgateway.McpGatewayApplication;
+import com.example.mcpgateway.service.LlmRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the stub LLM and payment gateway, boots the gateway against them and drives
+ * /ask-ai (or /ask-ai/stream) at each requested arrival rate.
+ * <p>
+ * Options ({@code --name=value}): rates (comma separated, per second), duration, warmup, endpoint,
+ * timeout, seed, llm-latency, llm-jitter, llm-slow-fraction, token-delay, gateway-latency,
+ * missing-pairs (share of non-USD pairs the gateway stub leaves out), llm-routes, out (JSON report), max-p99 and max-error-rate (exit code 1 when exceeded at any rate).
+ * {@code --app.<property>=<value>} overrides an application property.
+ * <p>
+ * {@code --llm-routes=fast:300ms,slow:3s,flaky:500ms:0.3} starts one stub LLM per route
+ * ({@code name:latency[:error rate]}, jitter and the rest shared) and wires them as llm.routing.routes,
+ * to exercise failover and hedging; the router's counters are printed at the end.
+ * <p>
+ * By default the fast path and both answer caches are off and the local rate limit is lifted,
+ * so every request runs the full LLM + tool pipeline.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        appProperties.put("server.port", "0");
+        appProperties.put("llm.api-key", "stub");
+        appProperties.put("llm.fast-path.enabled", "false");
+        appProperties.put("llm.answer-cache.enabled", "false");
+        appProperties.put("llm.semantic-cache.enabled", "false");
+        appProperties.put("llm.rate-limit.enabled", "false");
+        appProperties.put("logging.level.com.example.mcpgateway", "WARN");
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("app.")) {
+                appProperties.put(name.substring(4), value);
+            } else {
+                options.put(name, value);
+            }
+        }
+
+        List<Double> rates = Arrays.stream(options.getOrDefault("rates", "5,20,50").split(","))
+                .map(String::trim)
+                .map(Double::parseDouble)
+                .toList();
+        Duration duration = duration(options, "duration", "30s");
+        Duration warmup = duration(options, "warmup", "10s");
+        String endpoint = options.getOrDefault("endpoint", "/ask-ai");
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        Duration maxP99 = options.containsKey("max-p99") ? duration(options, "max-p99", null) : null;
+
+        Duration jitter = duration(options, "llm-jitter", "200ms");
+        double slowFraction = Double.parseDouble(options.getOrDefault("llm-slow-fraction", "0.01"));
+        Duration tokenDelay = duration(options, "token-delay", "15ms");
+
+        // name -> settings; without --llm-routes a single stub serves llm.base-url
+        Map<String, StubLlmServer.Settings> routes = new LinkedHashMap<>();
+        if (options.containsKey("llm-routes")) {
+            for (String route : options.get("llm-routes").split(",")) {
+                String[] parts = route.trim().split(":");
+                routes.put(parts[0], new StubLlmServer.Settings(DurationStyle.detectAndParse(parts[1]), jitter,
+                        slowFraction, tokenDelay, parts.length > 2 ? Double.parseDouble(parts[2]) : 0));
+            }
+        } else {
+            routes.put("default", new StubLlmServer.Settings(duration(options, "llm-latency", "800ms"), jitter,
+                    slowFraction, tokenDelay, 0));
+        }
+
+        List<LoadDriver.Report> reports = new ArrayList<>();
+        boolean failed = false;
+        List<StubLlmServer> llms = new ArrayList<>();
+
+        try (StubPaymentGateway gateway = new StubPaymentGateway(duration(options, "gateway-latency", "50ms"),
+                     Double.parseDouble(options.getOrDefault("missing-pairs", "0")))) {
+
+            for (Map.Entry<String, StubLlmServer.Settings> route : routes.entrySet()) {
+                StubLlmServer llm = new StubLlmServer(route.getKey(), route.getValue());
+                llms.add(llm);
+                if (options.containsKey("llm-routes")) {
+                    String prefix = "llm.routing.routes[" + (llms.size() - 1) + "].";
+                    appProperties.putIfAbsent(prefix + "name", route.getKey());
+                    appProperties.putIfAbsent(prefix + "base-url", llm.baseUrl());
+                    appProperties.putIfAbsent(prefix + "model", "stub/" + route.getKey());
+                    appProperties.putIfAbsent(prefix + "api-key", "stub");
+                }
+            }
+            appProperties.putIfAbsent("llm.base-url", llms.get(0).baseUrl());
+            appProperties.putIfAbsent("backend.services.payment-gateway.url", gateway.baseUrl());
+
+            // Command line arguments, so they win over application.yml
+            String[] appArgs = appProperties.entrySet().stream()
+                    .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                    .toArray(String[]::new);
+
+            try (ConfigurableApplicationContext app = SpringApplication.run(McpGatewayApplication.class, appArgs)) {
+                String port = app.getEnvironment().getProperty("local.server.port");
+                URI target = URI.create("http://127.0.0.1:" + port + endpoint);
+                LoadDriver driver = new LoadDriver(target, duration(options, "timeout", "60s"),
+                        LoadDriver.DEFAULT_MIX, StubPaymentGateway.CURRENCIES);
+
+                System.out.printf("Driving %s with %s for %s per rate (warm-up %s)%n", target, rates, duration, warmup);
+                System.out.printf("JVM %s, max heap %d MB, %d CPUs%n", Runtime.version(),
+                        Runtime.getRuntime().maxMemory() / 1048576, Runtime.getRuntime().availableProcessors());
+                for (double rate : rates) {
+                    if (!warmup.isZero()) {
+                        driver.run(rate, warmup, seed - 1);
+                    }
+                    LoadDriver.Report report = driver.run(rate, duration, seed);
+                    reports.add(report);
+                    System.out.println(report.format());
+
+                    double errorRate = 1.0 - (double) report.completed() / report.sent();
+                    if (errorRate > maxErrorRate) {
+                        System.out.printf("FAIL: %.1f%% of requests failed at %.1f/s (limit %.1f%%)%n",
+                                errorRate * 100, rate, maxErrorRate * 100);
+                        failed = true;
+                    }
+                    if (maxP99 != null && report.p99Ms() > maxP99.toMillis()) {
+                        System.out.printf("FAIL: p99 %.1f ms at %.1f/s exceeds %d ms%n", report.p99Ms(), rate, maxP99.toMillis());
+                        failed = true;
+                    }
+                }
+
+                System.out.println("LLM router: " + new ObjectMapper().writeValueAsString(app.getBean(LlmRouter.class).getStats()));
+            }
+
+            llms.forEach(llm -> System.out.println(llm.stats()));
+            System.out.println(gateway.stats());
+        } finally {
+            llms.forEach(StubLlmServer::close);
+        }
+
+        if (options.containsKey("out")) {
+            File out = new File(options.get("out"));
+            if (out.getParentFile() != null) {
+                out.getParentFile().mkdirs();
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, reports);
+            System.out.println("Report written to " + out);
+        }
+
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static Duration duration(Map<String, String> options, String name, String defaultValue) {
+        return DurationStyle.detectAndParse(options.getOrDefault(name, defaultValue));
+    }
+}
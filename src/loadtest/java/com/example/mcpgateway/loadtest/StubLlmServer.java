@@ -0,0 +1,309 @@
+package com.example.mcpgateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OpenAI-compatible /chat/completions stand-in. Questions naming currencies get get_exchange_rates
+ * tool calls (two legs through USD for "through USD" questions), tool results get a final answer -
+ * unless a pair was not found, then the next turn asks for both legs through USD like a model would.
+ * Answers are blocking JSON or, with "stream": true, SSE chunks with a per-token delay.
+ */
+public class StubLlmServer implements AutoCloseable {
+
+    private static final Pattern CURRENCY = Pattern.compile("\\b[A-Z]{3}\\b");
+    private static final Pattern PAIR_NOT_FOUND = Pattern.compile("^No exchange rate found for ([A-Z]{3}) to ([A-Z]{3})");
+
+    /**
+     * @param latency       time to the first byte
+     * @param jitter        uniform +- spread around latency
+     * @param slowFraction  share of calls that take five times as long, for a realistic tail
+     * @param tokenDelay    pause between streamed chunks
+     * @param errorRate     share of calls answered with 500 after the latency, like a failing upstream
+     */
+    public record Settings(Duration latency, Duration jitter, double slowFraction, Duration tokenDelay, double errorRate) {}
+
+    private final String name;
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong completions = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+    private final AtomicLong toolCallTurns = new AtomicLong();
+    private final AtomicLong crossRateRetries = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public StubLlmServer(String name, Settings settings) throws IOException {
+        this.name = name;
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Value for llm.base-url
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public String stats() {
+        return String.format(Locale.ROOT, "LLM stub %s: %d completions (%d streamed, %d with tool calls, %d cross rates via USD after a missing pair), %d errors",
+                name, completions.get(), streamed.get(), toolCallTurns.get(), crossRateRetries.get(), errors.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+
+            sleep(firstByteDelay());
+            if (ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            completions.incrementAndGet();
+            Turn turn = decide(request);
+            if (!turn.toolCalls().isEmpty()) {
+                toolCallTurns.incrementAndGet();
+            }
+            int promptTokens = request.toString().length() / 4;
+            if (request.path("stream").asBoolean(false)) {
+                streamed.incrementAndGet();
+                stream(exchange, request, turn, promptTokens);
+            } else {
+                byte[] body = objectMapper.writeValueAsBytes(completion(request, turn, promptTokens));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        } catch (Exception e) {
+            // Client went away (e.g. a cancelled hedge) - nothing to answer
+        }
+    }
+
+    private record ToolCallSpec(String id, String arguments) {}
+
+    private record Turn(String content, List<ToolCallSpec> toolCalls) {}
+
+    private Turn decide(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        JsonNode last = messages.get(messages.size() - 1);
+        boolean toolsOffered = request.path("tools").isArray() && !request.path("tools").isEmpty();
+
+        if ("tool".equals(last.path("role").asText())) {
+            // The results of the last tool turn, in call order
+            List<String> results = new ArrayList<>();
+            for (int i = messages.size() - 1; i >= 0 && "tool".equals(messages.get(i).path("role").asText()); i--) {
+                results.add(0, messages.get(i).path("content").asText());
+            }
+
+            Matcher notFound = PAIR_NOT_FOUND.matcher(results.get(0));
+            if (toolsOffered && results.size() == 1 && notFound.find()
+                    && !"USD".equals(notFound.group(1)) && !"USD".equals(notFound.group(2))) {
+                crossRateRetries.incrementAndGet();
+                return new Turn("", List.of(call(notFound.group(1), "USD"), call("USD", notFound.group(2))));
+            }
+
+            StringBuilder answer = new StringBuilder("Here is what the payment gateway reports:");
+            for (String result : results) {
+                answer.append("\n\n").append(result.lines().limit(4).reduce((a, b) -> a + "\n" + b).orElse(""));
+            }
+            return new Turn(answer.toString(), List.of());
+        }
+
+        // Currency codes are the upper-case three letter words, in the order asked
+        String question = last.path("content").asText();
+        Set<String> currencies = new LinkedHashSet<>();
+        Matcher matcher = CURRENCY.matcher(question);
+        while (matcher.find()) {
+            currencies.add(matcher.group());
+        }
+        boolean viaUsd = question.contains("through USD") || question.contains("via USD");
+        if (viaUsd) {
+            currencies.remove("USD");
+        }
+
+        if (!toolsOffered || currencies.isEmpty()) {
+            return new Turn("I can look up currency exchange rates and the payment methods that support them. "
+                    + "Try asking for a currency pair such as EUR to USD.", List.of());
+        }
+
+        List<String> codes = new ArrayList<>(currencies);
+        List<ToolCallSpec> calls = new ArrayList<>();
+        if (viaUsd && codes.size() >= 2) {
+            calls.add(call(codes.get(0), "USD"));
+            calls.add(call("USD", codes.get(1)));
+        } else if (codes.size() >= 2) {
+            calls.add(call(codes.get(0), codes.get(1)));
+        } else {
+            calls.add(call(codes.get(0), null));
+        }
+        return new Turn("", calls);
+    }
+
+    private ToolCallSpec call(String from, String to) {
+        ObjectNode arguments = objectMapper.createObjectNode().put("fromCurrency", from);
+        if (to != null) {
+            arguments.put("toCurrency", to);
+        }
+        String id = "call_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return new ToolCallSpec(id, arguments.toString());
+    }
+
+    private ObjectNode completion(JsonNode request, Turn turn, int promptTokens) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", "gen-stub-" + completions.get());
+        response.put("object", "chat.completion");
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", request.path("model").asText());
+
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.put("finish_reason", turn.toolCalls().isEmpty() ? "stop" : "tool_calls");
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", turn.content());
+        if (!turn.toolCalls().isEmpty()) {
+            ArrayNode toolCalls = message.putArray("tool_calls");
+            for (int i = 0; i < turn.toolCalls().size(); i++) {
+                ToolCallSpec call = turn.toolCalls().get(i);
+                ObjectNode toolCall = toolCalls.addObject();
+                toolCall.put("index", i);
+                toolCall.put("id", call.id());
+                toolCall.put("type", "function");
+                toolCall.putObject("function").put("name", "get_exchange_rates").put("arguments", call.arguments());
+            }
+        }
+        response.set("usage", usage(promptTokens, turn));
+        return response;
+    }
+
+    private void stream(HttpExchange exchange, JsonNode request, Turn turn, int promptTokens) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String model = request.path("model").asText();
+
+        // Content a few characters at a time, like a tokenizer would
+        String content = turn.content();
+        for (int i = 0; i < content.length(); i += 4) {
+            ObjectNode delta = objectMapper.createObjectNode().put("content", content.substring(i, Math.min(content.length(), i + 4)));
+            sendChunk(out, model, delta, null);
+            sleep(settings.tokenDelay());
+        }
+
+        // Tool calls: name and id first, arguments in two fragments
+        for (int i = 0; i < turn.toolCalls().size(); i++) {
+            ToolCallSpec call = turn.toolCalls().get(i);
+            int half = call.arguments().length() / 2;
+            sendChunk(out, model, toolCallDelta(i, call.id(), "get_exchange_rates", call.arguments().substring(0, half)), null);
+            sleep(settings.tokenDelay());
+            sendChunk(out, model, toolCallDelta(i, null, null, call.arguments().substring(half)), null);
+        }
+
+        sendChunk(out, model, objectMapper.createObjectNode(), turn.toolCalls().isEmpty() ? "stop" : "tool_calls");
+
+        ObjectNode usageChunk = objectMapper.createObjectNode();
+        usageChunk.put("model", model);
+        usageChunk.putArray("choices");
+        usageChunk.set("usage", usage(promptTokens, turn));
+        write(out, "data: " + usageChunk + "\n\n");
+        write(out, "data: [DONE]\n\n");
+    }
+
+    private ObjectNode toolCallDelta(int index, String id, String name, String arguments) {
+        ObjectNode delta = objectMapper.createObjectNode();
+        ObjectNode toolCall = delta.putArray("tool_calls").addObject();
+        toolCall.put("index", index);
+        if (id != null) {
+            toolCall.put("id", id);
+            toolCall.put("type", "function");
+        }
+        ObjectNode function = toolCall.putObject("function");
+        if (name != null) {
+            function.put("name", name);
+        }
+        function.put("arguments", arguments);
+        return delta;
+    }
+
+    private void sendChunk(OutputStream out, String model, ObjectNode delta, String finishReason) throws IOException {
+        ObjectNode chunk = objectMapper.createObjectNode();
+        chunk.put("object", "chat.completion.chunk");
+        chunk.put("model", model);
+        ObjectNode choice = chunk.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.set("delta", delta);
+        if (finishReason != null) {
+            choice.put("finish_reason", finishReason);
+        }
+        write(out, "data: " + chunk + "\n\n");
+    }
+
+    private ObjectNode usage(int promptTokens, Turn turn) {
+        int completionTokens = turn.content().length() / 4 + turn.toolCalls().size() * 20;
+        return objectMapper.createObjectNode()
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+    }
+
+    private static void write(OutputStream out, String data) throws IOException {
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private Duration firstByteDelay() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long jitter = settings.jitter().toMillis();
+        long millis = settings.latency().toMillis() + (jitter > 0 ? random.nextLong(-jitter, jitter + 1) : 0);
+        if (random.nextDouble() < settings.slowFraction()) {
+            millis *= 5;
+        }
+        return Duration.ofMillis(Math.max(0, millis));
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
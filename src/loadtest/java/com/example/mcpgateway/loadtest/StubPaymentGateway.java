@@ -0,0 +1,146 @@
+package com.example.mcpgateway.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payment gateway stand-in serving every pair of {@link #CURRENCIES} from the paginated
+ * exchange-rate endpoint, in the nested Spring Data page layout. Optionally a share of the
+ * pairs without USD is left out, so some rates can only be found as a cross rate via USD.
+ */
+public class StubPaymentGateway implements AutoCloseable {
+
+    public static final String ENDPOINT = "/paymentgw/config/exchange-rates";
+
+    public static final List<String> CURRENCIES = List.of(
+            "USD", "EUR", "GBP", "CHF", "JPY", "CAD", "AUD", "NZD", "SEK", "NOK",
+            "DKK", "PLN", "CZK", "HUF", "RON", "BGN", "TRY", "ZAR", "MXN", "BRL",
+            "INR", "CNY", "HKD", "SGD", "KRW", "THB", "ILS", "AED", "SAR", "ISK");
+
+    private static final List<String> PAYMENT_METHODS = List.of("CARD", "SEPA", "PAYPAL", "APPLE_PAY", "GOOGLE_PAY", "BANK_TRANSFER");
+
+    private final Duration pageLatency;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String[] rows;
+
+    private final AtomicLong pages = new AtomicLong();
+
+    public StubPaymentGateway(Duration pageLatency) throws IOException {
+        this(pageLatency, 0);
+    }
+
+    /**
+     * @param missingPairs share of the pairs without USD that are not served, 0 to 1
+     */
+    public StubPaymentGateway(Duration pageLatency, double missingPairs) throws IOException {
+        this.pageLatency = pageLatency;
+        this.rows = buildRows(missingPairs);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext(ENDPOINT, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Value for backend.services.payment-gateway.url
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String stats() {
+        return String.format(Locale.ROOT, "Gateway stub: %d rates, %d pages served", rows.length, pages.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            int size = Math.max(1, Integer.parseInt(query.getOrDefault("size", "100")));
+            int page = Math.max(0, Integer.parseInt(query.getOrDefault("page", "0")));
+            int totalPages = (rows.length + size - 1) / size;
+
+            StringBuilder json = new StringBuilder(size * 240);
+            json.append("{\"content\":[");
+            for (int i = page * size; i < Math.min(rows.length, (page + 1) * size); i++) {
+                if (i > page * size) {
+                    json.append(',');
+                }
+                json.append(rows[i]);
+            }
+            json.append("],\"page\":{\"size\":").append(size)
+                    .append(",\"number\":").append(page)
+                    .append(",\"totalElements\":").append(rows.length)
+                    .append(",\"totalPages\":").append(totalPages).append("}}");
+
+            Thread.sleep(pageLatency);
+            pages.incrementAndGet();
+
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String[] buildRows(double missingPairs) {
+        int n = CURRENCIES.size();
+        List<String> rows = new ArrayList<>(n * (n - 1));
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                // The same pairs are missing on every run
+                boolean missing = from != 0 && to != 0 && Math.floorMod(from * 31 + to * 17, 100) < missingPairs * 100;
+                if (from == to || missing) {
+                    continue;
+                }
+                // Consistent cross rates from a made-up USD value per currency
+                double rate = usdValue(from) / usdValue(to);
+                List<String> methods = PAYMENT_METHODS.subList(0, 2 + (from + to) % (PAYMENT_METHODS.size() - 1));
+                rows.add(String.format(Locale.ROOT,
+                        "{\"fromCurrencyAlphabeticCode\":\"%s\",\"fromCurrencyNumericCode\":\"%03d\","
+                                + "\"toCurrencyAlphabeticCode\":\"%s\",\"toCurrencyNumericCode\":\"%03d\","
+                                + "\"exchangeRate\":%.6f,\"paymentMethods\":[\"%s\"]}",
+                        CURRENCIES.get(from), 100 + from, CURRENCIES.get(to), 100 + to, rate, String.join("\",\"", methods)));
+            }
+        }
+        return rows.toArray(String[]::new);
+    }
+
+    private static double usdValue(int currency) {
+        return currency == 0 ? 1.0 : 0.05 + (currency * 37 % 29) / 10.0;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String part : rawQuery.split("&")) {
+                int eq = part.indexOf('=');
+                if (eq > 0) {
+                    query.put(part.substring(0, eq), part.substring(eq + 1));
+                }
+            }
+        }
+        return query;
+    }
+}
@@ -1,36 +1,154 @@
 package com.example.mcpgateway.config;
 
+import com.example.mcpgateway.service.LlmRoute;
+import com.example.mcpgateway.service.LlmRouter;
+import com.example.mcpgateway.trace.Tracer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LlmRoutingProperties.class)
 public class AppConfig {
 
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
     @Value("${llm.base-url}")
     private String llmBaseUrl;
 
     @Value("${llm.api-key}")
     private String llmApiKey;
 
+    @Value("${llm.model}")
+    private String llmModel;
+
     @Value("${backend.services.payment-gateway.url}")
     private String paymentGatewayServiceUrl;
 
+    @Value("${http.keep-alive:120s}")
+    private Duration keepAlive;
+
+    @Value("${llm.http.http2:true}")
+    private boolean llmHttp2;
+
+    @Value("${llm.http.connect-timeout:5s}")
+    private Duration llmConnectTimeout;
+
+    @Value("${llm.http.read-timeout:120s}")
+    private Duration llmReadTimeout;
+
+    @Value("${llm.http.max-connections:1024}")
+    private int llmMaxConnections;
+
+    @Value("${llm.http.acquire-timeout:2s}")
+    private Duration llmAcquireTimeout;
+
+    @Value("${backend.services.payment-gateway.http.http2:true}")
+    private boolean gatewayHttp2;
+
+    @Value("${backend.services.payment-gateway.http.connect-timeout:2s}")
+    private Duration gatewayConnectTimeout;
+
+    @Value("${backend.services.payment-gateway.http.read-timeout:10s}")
+    private Duration gatewayReadTimeout;
+
+    @Value("${backend.services.payment-gateway.http.max-connections:32}")
+    private int gatewayMaxConnections;
+
+    @Value("${backend.services.payment-gateway.http.acquire-timeout:1s}")
+    private Duration gatewayAcquireTimeout;
+
+    @Bean
+    public UpstreamHttpClient llmUpstream() {
+        applyKeepAlive();
+        return new UpstreamHttpClient("llm", llmBaseUrl, llmHttp2, llmConnectTimeout,
+                llmReadTimeout, llmMaxConnections, llmAcquireTimeout);
+    }
+
+    @Bean
+    public UpstreamHttpClient paymentGatewayUpstream() {
+        applyKeepAlive();
+        return new UpstreamHttpClient("payment-gateway", paymentGatewayServiceUrl, gatewayHttp2, gatewayConnectTimeout,
+                gatewayReadTimeout, gatewayMaxConnections, gatewayAcquireTimeout);
+    }
+
     @Bean
     public RestClient llmRestClient() {
-        return RestClient.builder()
-                .baseUrl(llmBaseUrl)
-                .defaultHeader("Authorization", "Bearer " + llmApiKey)
-                .defaultHeader("HTTP-Referer", "http://localhost:8082")
-                .defaultHeader("X-Title", "MCP-Gateway")
-                .build();
+        return buildLlmRestClient(llmBaseUrl, llmApiKey, llmUpstream());
+    }
+
+    /**
+     * The configured llm.routing.routes, each with its own connection pool,
+     * or the single llm.base-url / llm.model route
+     */
+    @Bean
+    public LlmRouter llmRouter(LlmRoutingProperties routing, @Qualifier("askExecutor") ExecutorService askExecutor) {
+        List<LlmRoute> routes = new ArrayList<>();
+        if (routing.getRoutes().isEmpty()) {
+            routes.add(new LlmRoute("default", llmModel, 1, llmRestClient(), llmUpstream()));
+        }
+        for (LlmRoutingProperties.Route route : routing.getRoutes()) {
+            applyKeepAlive();
+            String name = route.getName() != null ? route.getName() : "route-" + routes.size();
+            UpstreamHttpClient upstream = new UpstreamHttpClient("llm-" + name, route.getBaseUrl(), llmHttp2,
+                    llmConnectTimeout, llmReadTimeout, llmMaxConnections, llmAcquireTimeout);
+            String apiKey = route.getApiKey() != null ? route.getApiKey() : llmApiKey;
+            String model = route.getModel() != null ? route.getModel() : llmModel;
+            routes.add(new LlmRoute(name, model, route.getWeight(),
+                    buildLlmRestClient(route.getBaseUrl(), apiKey, upstream), upstream));
+        }
+        return new LlmRouter(routes, routing, askExecutor);
     }
 
     @Bean(name = "paymentGatewayRestClient")
     public RestClient paymentGatewayRestClient() {
+        UpstreamHttpClient upstream = paymentGatewayUpstream();
         return RestClient.builder()
                 .baseUrl(paymentGatewayServiceUrl)
+                .requestFactory(upstream.getRequestFactory())
+                .requestInterceptor(upstream)
+                .build();
+    }
+
+    /**
+     * Executor for work that leaves the request thread - streamed answers and early tool dispatch.
+     * Virtual threads, since nearly all of that work is blocked on LLM or gateway I/O.
+     * Tasks carry the submitting request's trace.
+     */
+    @Bean(name = "askExecutor", destroyMethod = "close")
+    public ExecutorService askExecutor(Tracer tracer) {
+        return tracer.wrap(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private RestClient buildLlmRestClient(String baseUrl, String apiKey, UpstreamHttpClient upstream) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(upstream.getRequestFactory())
+                .requestInterceptor(upstream)
+                .defaultHeader("Authorization", "Bearer " + apiKey)
+                .defaultHeader("HTTP-Referer", "http://localhost:8082")
+                .defaultHeader("X-Title", "MCP-Gateway")
                 .build();
     }
+
+    /**
+     * The JDK client reads its idle-connection timeout once, JVM-wide, when the first client is built.
+     * An explicit -Djdk.httpclient.keepalive.timeout wins.
+     */
+    private void applyKeepAlive() {
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, Long.toString(keepAlive.toSeconds()));
+        }
+    }
 }
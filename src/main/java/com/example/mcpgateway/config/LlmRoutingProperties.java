@@ -0,0 +1,145 @@
+package com.example.mcpgateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LLM routes (endpoint + model) with weighted routing, failover and hedging.
+ * Without routes, the single llm.base-url / llm.model / llm.api-key route is used.
+ */
+@ConfigurationProperties(prefix = "llm.routing")
+public class LlmRoutingProperties {
+
+    public static class Route {
+        private String name;
+        private String baseUrl;
+        // Falls back to llm.api-key
+        private String apiKey;
+        private String model;
+        private int weight = 1;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(String model) {
+            this.model = model;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public static class Hedge {
+        private boolean enabled = false;
+        // Hedge once the first attempt is slower than this percentile of its route's recent latency
+        private double percentile = 0.95;
+        // Never hedge earlier than this
+        private Duration minDelay = Duration.ofMillis(500);
+        // Used until a route has enough latency samples
+        private Duration initialDelay = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+    }
+
+    private List<Route> routes = new ArrayList<>();
+    // Routes tried per call, including the first
+    private int maxAttempts = 3;
+    // A failed route is tried last for this long
+    private Duration failureCooldown = Duration.ofSeconds(30);
+    private Hedge hedge = new Hedge();
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getFailureCooldown() {
+        return failureCooldown;
+    }
+
+    public void setFailureCooldown(Duration failureCooldown) {
+        this.failureCooldown = failureCooldown;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(Hedge hedge) {
+        this.hedge = hedge;
+    }
+}
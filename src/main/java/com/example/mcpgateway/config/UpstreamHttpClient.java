@@ -0,0 +1,159 @@
+package com.example.mcpgateway.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP client for one upstream: a dedicated JDK {@link HttpClient} (its own keep-alive
+ * connection pool, HTTP/2 multiplexing over TLS) with connect/read timeouts and a bounded
+ * number of concurrent exchanges. Acts as a RestClient interceptor to enforce that bound and
+ * to count leased and pending exchanges; a lease lasts until the response body is closed.
+ */
+public class UpstreamHttpClient implements ClientHttpRequestInterceptor {
+
+    private final String name;
+    private final int maxConnections;
+    private final Duration acquireTimeout;
+    private final HttpClient.Version version;
+    private final JdkClientHttpRequestFactory requestFactory;
+    private final Semaphore permits;
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public UpstreamHttpClient(String name, String baseUrl, boolean http2, Duration connectTimeout,
+                              Duration readTimeout, int maxConnections, Duration acquireTimeout) {
+        this.name = name;
+        this.maxConnections = maxConnections;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+
+        // h2 is negotiated via ALPN; cleartext h2c upgrades confuse too many servers to be worth it
+        this.version = http2 && baseUrl != null && baseUrl.startsWith("https")
+                ? HttpClient.Version.HTTP_2
+                : HttpClient.Version.HTTP_1_1;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        this.requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        this.requestFactory.setReadTimeout(readTimeout);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JdkClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        pending.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new IOException("Connection pool '" + name + "' exhausted: " + maxConnections
+                        + " exchanges in flight, waited " + acquireTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for connection pool '" + name + "'", e);
+        } finally {
+            pending.decrementAndGet();
+        }
+
+        leased.incrementAndGet();
+        try {
+            return new LeasedResponse(execution.execute(request, body));
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("protocol", version == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1");
+        stats.put("maxConnections", maxConnections);
+        stats.put("leased", leased.get());
+        stats.put("available", permits.availablePermits());
+        stats.put("pending", pending.get());
+        stats.put("completed", completed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    private void release() {
+        leased.decrementAndGet();
+        completed.incrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * Holds the lease until the body is consumed and closed - streamed answers keep their connection busy
+     */
+    private class LeasedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LeasedResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package com.example.mcpgateway.controller;
 
+import com.example.mcpgateway.config.UpstreamHttpClient;
 import com.example.mcpgateway.dto.AskAiRequest;
 import com.example.mcpgateway.dto.AskAiResponse;
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+import com.example.mcpgateway.service.AnswerCache;
+import com.example.mcpgateway.service.AnswerStreamListener;
+import com.example.mcpgateway.service.AskContext;
+import com.example.mcpgateway.service.ConcurrencyLimiter;
+import com.example.mcpgateway.service.FastPathRouter;
 import com.example.mcpgateway.service.LLMService;
+import com.example.mcpgateway.service.LlmRateLimiter;
+import com.example.mcpgateway.service.LlmRouter;
 import com.example.mcpgateway.service.MCPServerStarter;
+import com.example.mcpgateway.service.PipelineMetrics;
+import com.example.mcpgateway.service.SemanticAnswerCache;
+import com.example.mcpgateway.service.ToolDispatchService;
+import com.example.mcpgateway.trace.Span;
+import com.example.mcpgateway.trace.Tracer;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/ask-ai")
@@ -19,19 +46,77 @@ public class AskAiController {
 
     private static final Logger log = LoggerFactory.getLogger(AskAiController.class);
 
+    // Outcomes of gateway.ask besides PipelineMetrics.REJECTED
+    private static final String ANSWERED = "answered";
+    private static final String FAILED = "failed";
+    private static final String NO_ANSWER = "none";
+
+    @Value("${llm.stream-timeout:120s}")
+    private Duration streamTimeout;
+
     private final LLMService llmService;
     private final MCPServerStarter mcpServerStarter;
+    private final FastPathRouter fastPathRouter;
+    private final AnswerCache answerCache;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final LlmRateLimiter llmRateLimiter;
+    private final LlmRouter llmRouter;
+    private final ToolDispatchService toolDispatchService;
+    private final List<UpstreamHttpClient> upstreams;
+    private final ExecutorService askExecutor;
+    private final PipelineMetrics metrics;
+    private final Tracer tracer;
 
-    public AskAiController(LLMService llmService, MCPServerStarter mcpServerStarter) {
+    public AskAiController(
+            LLMService llmService,
+            MCPServerStarter mcpServerStarter,
+            FastPathRouter fastPathRouter,
+            AnswerCache answerCache,
+            SemanticAnswerCache semanticAnswerCache,
+            ConcurrencyLimiter concurrencyLimiter,
+            LlmRateLimiter llmRateLimiter,
+            LlmRouter llmRouter,
+            ToolDispatchService toolDispatchService,
+            List<UpstreamHttpClient> upstreams,
+            @Qualifier("askExecutor") ExecutorService askExecutor,
+            PipelineMetrics metrics,
+            Tracer tracer) {
         this.llmService = llmService;
         this.mcpServerStarter = mcpServerStarter;
+        this.fastPathRouter = fastPathRouter;
+        this.answerCache = answerCache;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.llmRateLimiter = llmRateLimiter;
+        this.llmRouter = llmRouter;
+        this.toolDispatchService = toolDispatchService;
+        this.upstreams = upstreams;
+        this.askExecutor = askExecutor;
+        this.metrics = metrics;
+        this.tracer = tracer;
     }
 
     @PostMapping
-    public ResponseEntity<AskAiResponse> ask(@Valid @RequestBody AskAiRequest request) {
+    public ResponseEntity<AskAiResponse> ask(@Valid @RequestBody AskAiRequest request, HttpServletResponse servletResponse) {
         System.out.println("===== CONTROLLER CALLED =====");
         System.out.println("===== Question: " + request.getQuestion());
 
+        long start = System.nanoTime();
+        Span trace = startTrace("ask", request, servletResponse);
+        AskContext context = new AskContext();
+
+        // Cache hits and fast path lookups take microseconds - only the LLM path is admission controlled
+        String local = llmService.answerWithoutLlm(request.getQuestion(), context);
+        boolean admitted = local == null;
+        if (admitted && !concurrencyLimiter.tryAcquire()) {
+            log.warn("Ask pipeline saturated, shedding question: {}", request.getQuestion());
+            metrics.recordAsk("ask", PipelineMetrics.REJECTED, NO_ANSWER, System.nanoTime() - start);
+            endTrace(trace, PipelineMetrics.REJECTED, null);
+            return overloaded(new AskAiResponse("Error: Too many questions in progress, please retry shortly"));
+        }
+
+        String outcome = FAILED;
         try {
             log.error("===== Received question: {}", request.getQuestion());
 
@@ -41,7 +126,7 @@ public class AskAiController {
             }
 
             System.out.println("===== Calling LLM service =====");
-            String answer = llmService.ask(request.getQuestion());
+            String answer = local != null ? local : llmService.askLlm(request.getQuestion(), context);
 
             System.out.println("===== Answer received: " + answer);
             System.out.println("===== Answer is null? " + (answer == null));
@@ -58,6 +143,10 @@ public class AskAiController {
             }
 
             AskAiResponse response = new AskAiResponse(answer);
+            response.setStats(context.getStats());
+            if (!context.isFailed()) {
+                outcome = ANSWERED;
+            }
             System.out.println("===== Response created with answer: " + response.getAnswer());
 
             log.error("===== Returning response =====");
@@ -69,13 +158,202 @@ public class AskAiController {
             log.error("===== ERROR in controller", e);
             return ResponseEntity
                     .ok(new AskAiResponse("EXCEPTION: " + e.getMessage() + " | " + e.getClass().getName()));
+        } finally {
+            if (admitted) {
+                concurrencyLimiter.release();
+            }
+            metrics.recordAsk("ask", outcome, context.getAnswerSource(), System.nanoTime() - start);
+            endTrace(trace, outcome, context);
+        }
+    }
+
+    /**
+     * Streams the answer as Server-Sent Events: "token", "tool", "tool_result", then "done" (with the
+     * request's agent stats) or "error"
+     */
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@Valid @RequestBody AskAiRequest request, HttpServletResponse servletResponse) {
+        log.info("Received streamed question: {}", request.getQuestion());
+
+        long start = System.nanoTime();
+        Span trace = startTrace("ask.stream", request, servletResponse);
+        AskContext context = new AskContext();
+
+        // As in ask: answers that need no LLM are not held back by admission control
+        String local = llmService.answerWithoutLlm(request.getQuestion(), context);
+        boolean admitted = local == null;
+        if (admitted && !concurrencyLimiter.tryAcquire()) {
+            log.warn("Ask pipeline saturated, shedding streamed question: {}", request.getQuestion());
+            metrics.recordAsk("stream", PipelineMetrics.REJECTED, NO_ANSWER, System.nanoTime() - start);
+            endTrace(trace, PipelineMetrics.REJECTED, null);
+            return overloaded(null);
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        try {
+            askExecutor.execute(() -> {
+                SseAnswerListener listener = new SseAnswerListener(emitter, context, metrics, start, trace);
+                try {
+                    if (local != null) {
+                        listener.onToken(local);
+                        listener.onComplete();
+                    } else {
+                        llmService.askLlmStream(request.getQuestion(), context, listener);
+                    }
+                } finally {
+                    if (admitted) {
+                        concurrencyLimiter.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            if (admitted) {
+                concurrencyLimiter.release();
+            }
+            endTrace(trace, FAILED, context);
+            throw e;
         }
+        // The trace ends with the stream, on the executor - not when this request thread returns
+        trace.detach();
+        return ResponseEntity.ok(emitter);
     }
 
     @GetMapping("/status")
-    public ResponseEntity<Map<String, String>> getStatus() {
-        return ResponseEntity.ok(Map.of(
-                "status", "running",
-                "mcpServer", mcpServerStarter.getServerStatus()));
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "running");
+        status.put("mcpServer", mcpServerStarter.getServerStatus());
+        status.put("admission", concurrencyLimiter.getStats());
+        status.put("llmRateLimit", llmRateLimiter.getStats());
+        status.put("llmRouting", llmRouter.getStats());
+        status.put("tools", toolDispatchService.getToolStats());
+
+        Map<String, Object> coalescing = new LinkedHashMap<>();
+        coalescing.put("questions", llmService.getCoalescingStats());
+        coalescing.put("toolCalls", toolDispatchService.getCoalescingStats());
+        status.put("coalescing", coalescing);
+
+        status.put("fastPath", fastPathRouter.getStats());
+        status.put("answerCache", answerCache.getStats());
+        status.put("semanticCache", semanticAnswerCache.getStats());
+        status.put("tracing", tracer.getStats());
+
+        Map<String, Object> connectionPools = new LinkedHashMap<>();
+        upstreams.forEach(upstream -> connectionPools.put(upstream.getName(), upstream.getStats()));
+        status.put("connectionPools", connectionPools);
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Recently finished traces, newest first - minDurationMs narrows them down to the slow ones
+     */
+    @GetMapping("/traces")
+    public ResponseEntity<List<Map<String, Object>>> getTraces(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") long minDurationMs) {
+        return ResponseEntity.ok(tracer.recentTraces(limit, minDurationMs));
+    }
+
+    @GetMapping("/traces/{traceId}")
+    public ResponseEntity<Map<String, Object>> getTrace(@PathVariable String traceId) {
+        Map<String, Object> trace = tracer.getTrace(traceId);
+        return trace != null ? ResponseEntity.ok(trace) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Opens the request's root span and hands its id to the client as X-Trace-Id
+     */
+    private Span startTrace(String name, AskAiRequest request, HttpServletResponse servletResponse) {
+        Span trace = tracer.startTrace(name).setAttribute("question", abbreviate(request.getQuestion()));
+        if (trace.getTraceId() != null) {
+            servletResponse.setHeader(Tracer.TRACE_ID_HEADER, trace.getTraceId());
+        }
+        return trace;
+    }
+
+    private static void endTrace(Span trace, String outcome, AskContext context) {
+        trace.setAttribute("outcome", outcome);
+        if (context != null) {
+            trace.setAttribute("source", context.getAnswerSource()).setAttribute("tokens", context.getTokensUsed());
+        }
+        if (!ANSWERED.equals(outcome)) {
+            trace.setError(outcome);
+        }
+        trace.close();
+    }
+
+    private static String abbreviate(String question) {
+        return question == null || question.length() <= 200 ? question : question.substring(0, 200) + "…";
+    }
+
+    /**
+     * 503 with a Retry-After hint, so clients back off instead of piling onto a saturated upstream
+     */
+    private <T> ResponseEntity<T> overloaded(T body) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(concurrencyLimiter.retryAfterSeconds()))
+                .body(body);
+    }
+
+    /**
+     * Forwards stream events to the browser. Event payloads are JSON so that
+     * newlines inside tokens survive the SSE framing.
+     */
+    private static class SseAnswerListener implements AnswerStreamListener {
+
+        private final SseEmitter emitter;
+        private final AskContext context;
+        private final PipelineMetrics metrics;
+        private final long start;
+        private final Span trace;
+
+        SseAnswerListener(SseEmitter emitter, AskContext context, PipelineMetrics metrics, long start, Span trace) {
+            this.emitter = emitter;
+            this.context = context;
+            this.metrics = metrics;
+            this.start = start;
+            this.trace = trace;
+        }
+
+        @Override
+        public void onToken(String text) {
+            send("token", Map.of("text", text));
+        }
+
+        @Override
+        public void onToolCall(ToolCall toolCall) {
+            send("tool", Map.of("id", toolCall.getId(), "name", toolCall.getName()));
+        }
+
+        @Override
+        public void onToolResult(ToolCall toolCall, ToolResult result) {
+            send("tool_result", Map.of("id", toolCall.getId(), "success", result.isSuccess()));
+        }
+
+        @Override
+        public void onComplete() {
+            send("done", context.getStats());
+            emitter.complete();
+            String outcome = context.isFailed() ? FAILED : ANSWERED;
+            metrics.recordAsk("stream", outcome, context.getAnswerSource(), System.nanoTime() - start);
+            endTrace(trace, outcome, context);
+        }
+
+        @Override
+        public void onError(String message) {
+            send("error", Map.of("message", message));
+            emitter.complete();
+            metrics.recordAsk("stream", FAILED, context.getAnswerSource(), System.nanoTime() - start);
+            endTrace(trace, FAILED, context);
+        }
+
+        private void send(String event, Map<String, Object> data) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away - the stream keeps running but nobody is listening
+                log.debug("Could not send '{}' event: {}", event, e.getMessage());
+            }
+        }
     }
 }
@@ -1,9 +1,17 @@
 package com.example.mcpgateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
 public class AskAiResponse {
 
     private String answer;
 
+    // Agent steps and time split between LLM and tools, when the pipeline ran
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> stats;
+
     public AskAiResponse() {
         this.answer = ""; // Default to empty string
     }
@@ -19,4 +27,12 @@ public class AskAiResponse {
     public void setAnswer(String answer) {
         this.answer = answer != null ? answer : "[NULL IN SETTER]";
     }
+
+    public Map<String, Object> getStats() {
+        return stats;
+    }
+
+    public void setStats(Map<String, Object> stats) {
+        this.stats = stats;
+    }
 }
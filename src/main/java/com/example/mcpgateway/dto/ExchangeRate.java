@@ -1,9 +1,11 @@
 package com.example.mcpgateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ExchangeRate {
     
     @JsonProperty("fromCurrencyAlphabeticCode")
@@ -0,0 +1,158 @@
+package com.example.mcpgateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * A single streamed chunk of an OpenAI-compatible /chat/completions response (stream=true)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OllamaChatChunk {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+        private Integer index;
+        private Delta delta;
+        private String finish_reason;
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public Delta getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Delta delta) {
+            this.delta = delta;
+        }
+
+        public String getFinish_reason() {
+            return finish_reason;
+        }
+
+        public void setFinish_reason(String finish_reason) {
+            this.finish_reason = finish_reason;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Delta {
+        private String role;
+        private String content;
+        private List<ToolCallDelta> tool_calls;
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public List<ToolCallDelta> getTool_calls() {
+            return tool_calls;
+        }
+
+        public void setTool_calls(List<ToolCallDelta> tool_calls) {
+            this.tool_calls = tool_calls;
+        }
+    }
+
+    /**
+     * Fragment of a tool call - id and name arrive once, arguments arrive in pieces
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ToolCallDelta {
+        private Integer index;
+        private String id;
+        private String type;
+        private FunctionDelta function;
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public FunctionDelta getFunction() {
+            return function;
+        }
+
+        public void setFunction(FunctionDelta function) {
+            this.function = function;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FunctionDelta {
+        private String name;
+        private String arguments;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getArguments() {
+            return arguments;
+        }
+
+        public void setArguments(String arguments) {
+            this.arguments = arguments;
+        }
+    }
+
+    private List<Choice> choices;
+    private Usage usage;
+
+    public List<Choice> getChoices() {
+        return choices;
+    }
+
+    public void setChoices(List<Choice> choices) {
+        this.choices = choices;
+    }
+
+    public Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(Usage usage) {
+        this.usage = usage;
+    }
+}
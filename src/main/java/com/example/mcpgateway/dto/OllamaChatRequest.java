@@ -1,13 +1,35 @@
 package com.example.mcpgateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 public class OllamaChatRequest {
 
-    public static class Message {
+    /**
+     * One entry of the messages array: a {@link Message} built for this request or a shared {@link PrecomputedMessage}
+     */
+    public interface ChatMessage {
+        String getRole();
+
+        String getContent();
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Message implements ChatMessage {
         private String role;
         private String content;
+        // Assistant turns that called tools, echoed back so the model sees its own calls
+        private List<OllamaChatResponse.Choice.ToolCallResponse> tool_calls;
+        // Tool turns: which call this message answers
+        private String tool_call_id;
 
         public Message() {}
 
@@ -16,6 +38,19 @@ public class OllamaChatRequest {
             this.content = content;
         }
 
+        public static Message assistant(String content, List<OllamaChatResponse.Choice.ToolCallResponse> toolCalls) {
+            Message message = new Message("assistant", content);
+            message.setTool_calls(toolCalls);
+            return message;
+        }
+
+        public static Message tool(String toolCallId, String content) {
+            Message message = new Message("tool", content);
+            message.setTool_call_id(toolCallId);
+            return message;
+        }
+
+        @Override
         public String getRole() {
             return role;
         }
@@ -24,6 +59,7 @@ public class OllamaChatRequest {
             this.role = role;
         }
 
+        @Override
         public String getContent() {
             return content;
         }
@@ -31,21 +67,89 @@ public class OllamaChatRequest {
         public void setContent(String content) {
             this.content = content;
         }
+
+        public List<OllamaChatResponse.Choice.ToolCallResponse> getTool_calls() {
+            return tool_calls;
+        }
+
+        public void setTool_calls(List<OllamaChatResponse.Choice.ToolCallResponse> tool_calls) {
+            this.tool_calls = tool_calls;
+        }
+
+        public String getTool_call_id() {
+            return tool_call_id;
+        }
+
+        public void setTool_call_id(String tool_call_id) {
+            this.tool_call_id = tool_call_id;
+        }
+    }
+
+    /**
+     * An immutable message serialized once, for constant prompts sent with every request.
+     * Shared between requests, so it has no setters that could make it differ from its JSON.
+     */
+    public static final class PrecomputedMessage implements ChatMessage, JsonSerializable {
+        private final String role;
+        private final String content;
+        private final RawJson json;
+
+        private PrecomputedMessage(String role, String content, RawJson json) {
+            this.role = role;
+            this.content = content;
+            this.json = json;
+        }
+
+        public static PrecomputedMessage of(String role, String content, ObjectMapper objectMapper) throws JsonProcessingException {
+            return new PrecomputedMessage(role, content, RawJson.of(objectMapper, new Message(role, content)));
+        }
+
+        @Override
+        public String getRole() {
+            return role;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            json.serialize(generator, provider);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+            serialize(generator, provider);
+        }
     }
 
     private String model;
-    private List<Message> messages;
-    private List<Map<String, Object>> tools;
+    private List<ChatMessage> messages;
+    // Tool definitions are pre-serialized once per registry version and spliced in as they are
+    private RawJson tools;
     private String tool_choice;
     private Boolean stream = false;
 
     public OllamaChatRequest() {}
 
-    public OllamaChatRequest(String model, List<Message> messages) {
+    public OllamaChatRequest(String model, List<ChatMessage> messages) {
         this.model = model;
         this.messages = messages;
     }
 
+    /**
+     * Shallow copy for another model - messages and tools are shared, so concurrent attempts must not modify them
+     */
+    public OllamaChatRequest withModel(String model) {
+        OllamaChatRequest copy = new OllamaChatRequest(model, messages);
+        copy.setTools(tools);
+        copy.setTool_choice(tool_choice);
+        copy.setStream(stream);
+        return copy;
+    }
+
     public String getModel() {
         return model;
     }
@@ -54,19 +158,19 @@ public class OllamaChatRequest {
         this.model = model;
     }
 
-    public List<Message> getMessages() {
+    public List<ChatMessage> getMessages() {
         return messages;
     }
 
-    public void setMessages(List<Message> messages) {
+    public void setMessages(List<ChatMessage> messages) {
         this.messages = messages;
     }
 
-    public List<Map<String, Object>> getTools() {
+    public RawJson getTools() {
         return tools;
     }
 
-    public void setTools(List<Map<String, Object>> tools) {
+    public void setTools(RawJson tools) {
         this.tools = tools;
     }
 
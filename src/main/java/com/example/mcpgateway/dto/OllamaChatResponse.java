@@ -128,6 +128,7 @@ public class OllamaChatResponse {
 
     // OpenAI-compatible format
     private List<Choice> choices;
+    private Usage usage;
     
     // Ollama native format
     private MessageResponse message;
@@ -141,6 +142,14 @@ public class OllamaChatResponse {
         this.choices = choices;
     }
 
+    public Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(Usage usage) {
+        this.usage = usage;
+    }
+
     public MessageResponse getMessage() {
         return message;
     }
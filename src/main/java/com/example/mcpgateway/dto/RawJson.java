@@ -0,0 +1,63 @@
+package com.example.mcpgateway.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * A value serialized once up front. Writing it into a request copies the cached UTF-8 bytes
+ * instead of walking and encoding the object graph again.
+ */
+public final class RawJson implements JsonSerializable {
+
+    private final SerializedString json;
+    private final int size;
+
+    private RawJson(SerializedString json, int size) {
+        this.json = json;
+        this.size = size;
+    }
+
+    public static RawJson of(ObjectMapper objectMapper, Object value) throws JsonProcessingException {
+        SerializedString json = new SerializedString(objectMapper.writeValueAsString(value));
+        // Encode now rather than on the first request
+        json.asUnquotedUTF8();
+        return new RawJson(json, value instanceof Collection<?> collection ? collection.size() : 1);
+    }
+
+    /**
+     * Number of elements if the value was a collection, otherwise 1
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Length of the encoded JSON in bytes
+     */
+    public int byteLength() {
+        return json.asUnquotedUTF8().length;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, provider);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+}
@@ -5,6 +5,8 @@ public class ToolResult {
     private String result;
     private boolean success;
     private String error;
+    // Last good result served in place of a failed call
+    private boolean stale;
 
     public ToolResult() {}
 
@@ -57,5 +59,12 @@ public class ToolResult {
     public void setError(String error) {
         this.error = error;
     }
-}
 
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mcpgateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One HTTP exchange with an LLM route, blocking or streamed to the last chunk. Only calls
+ * slower than the threshold are recorded unless the recording lowers it.
+ */
+@Name(LlmRoundTripEvent.NAME)
+@Label("LLM Round Trip")
+@Category({"MCP Gateway", "LLM"})
+@Description("One request to an LLM route, from sending the request to the end of the response")
+@StackTrace(false)
+@Threshold("1 s")
+public class LlmRoundTripEvent extends Event {
+
+    public static final String NAME = "com.example.mcpgateway.LlmRoundTrip";
+
+    @Label("Route")
+    private String route;
+
+    @Label("Model")
+    private String model;
+
+    @Label("Streamed")
+    private boolean streamed;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Bytes Out")
+    @DataAmount
+    private long bytesOut;
+
+    @Label("Bytes In")
+    @DataAmount
+    private long bytesIn;
+
+    @Label("Prompt Tokens")
+    private int promptTokens;
+
+    @Label("Completion Tokens")
+    private int completionTokens;
+
+    @Label("Trace Id")
+    @Description("Id of the request's trace in /ask-ai/traces, if it is still buffered")
+    private String traceId;
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public void setStreamed(boolean streamed) {
+        this.streamed = streamed;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setBytesOut(long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    public void setBytesIn(long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    public void setPromptTokens(int promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+
+    public void setCompletionTokens(int completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+}
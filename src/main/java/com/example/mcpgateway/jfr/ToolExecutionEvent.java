@@ -0,0 +1,72 @@
+package com.example.mcpgateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One execution of an MCP tool on its dispatch thread. Calls with the same arguments share
+ * the arguments hash, so repeated slow calls stand out without recording the arguments.
+ */
+@Name(ToolExecutionEvent.NAME)
+@Label("Tool Execution")
+@Category({"MCP Gateway", "Tools"})
+@Description("One tool call, from dispatch to its result")
+@StackTrace(false)
+@Threshold("100 ms")
+public class ToolExecutionEvent extends Event {
+
+    public static final String NAME = "com.example.mcpgateway.ToolExecution";
+
+    @Label("Tool")
+    private String toolName;
+
+    @Label("Arguments Hash")
+    private int argumentsHash;
+
+    @Label("Bytes In")
+    @Description("Size of the arguments")
+    @DataAmount
+    private long bytesIn;
+
+    @Label("Bytes Out")
+    @Description("Size of the result")
+    @DataAmount
+    private long bytesOut;
+
+    @Label("Success")
+    private boolean success;
+
+    @Label("Trace Id")
+    @Description("Id of the request's trace in /ask-ai/traces, if it is still buffered")
+    private String traceId;
+
+    public void setToolName(String toolName) {
+        this.toolName = toolName;
+    }
+
+    public void setArgumentsHash(int argumentsHash) {
+        this.argumentsHash = argumentsHash;
+    }
+
+    public void setBytesIn(long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    public void setBytesOut(long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+}
@@ -1,34 +1,67 @@
 package com.example.mcpgateway.mcp;
 
+import com.example.mcpgateway.dto.RawJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
- * Configuration for MCP Server - defines all available tools
+ * Configuration for MCP Server - defines all available tools.
+ * Tools are kept in an immutable, name-indexed snapshot that readers use without locking;
+ * registering or unregistering a tool at runtime publishes a new snapshot.
  */
 @Configuration
 public class MCPServerConfig {
 
     private static final Logger log = LoggerFactory.getLogger(MCPServerConfig.class);
 
+    /**
+     * One registry version: the tools by name, in registration order, and their serialized
+     * definitions - swapped together so a request never sees definitions of another version
+     */
+    private record Registry(Map<String, MCPTool> byName, List<MCPTool> tools, RawJson definitions, long version) {}
+
     @Value("${mcp.server.name:backend-services-mcp}")
     private String serverName;
 
     @Value("${mcp.server.version:1.0.0}")
     private String serverVersion;
 
-    private final List<MCPTool> tools;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Serializes writers; readers only read the volatile snapshot
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Registry registry;
 
-    public MCPServerConfig(List<MCPTool> tools) {
-        this.tools = tools;
-        log.info("Initialized MCP Server Config with {} tools", tools.size());
-        tools.forEach(tool -> log.info("  - Registered tool: {}", tool.getName()));
+    public MCPServerConfig(List<MCPTool> tools, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+
+        Map<String, MCPTool> byName = new LinkedHashMap<>();
+        for (MCPTool tool : tools) {
+            MCPTool previous = byName.put(tool.getName(), tool);
+            if (previous != null) {
+                log.warn("Tool name {} is used by both {} and {}, keeping the latter",
+                        tool.getName(), previous.getClass().getSimpleName(), tool.getClass().getSimpleName());
+            }
+        }
+        this.registry = snapshot(byName, 1);
+
+        log.info("Initialized MCP Server Config with {} tools ({} bytes of tool definitions)",
+                registry.tools().size(), registry.definitions().byteLength());
+        registry.tools().forEach(tool -> log.info("  - Registered tool: {}", tool.getName()));
     }
 
     public String getServerName() {
@@ -40,20 +73,92 @@ public class MCPServerConfig {
     }
 
     public List<MCPTool> getTools() {
-        return tools;
+        return registry.tools();
     }
 
     public MCPTool getTool(String name) {
-        return tools.stream()
-                .filter(tool -> tool.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+        return name == null ? null : registry.byName().get(name);
+    }
+
+    /**
+     * Registers a tool, or replaces the tool registered under the same name
+     *
+     * @return the replaced tool, or null
+     */
+    public MCPTool register(MCPTool tool) {
+        MCPTool previous;
+        long version;
+        writeLock.lock();
+        try {
+            Map<String, MCPTool> byName = new LinkedHashMap<>(registry.byName());
+            previous = byName.put(tool.getName(), tool);
+            // Serialized before publishing - a tool whose schema cannot be written is not registered
+            registry = snapshot(byName, registry.version() + 1);
+            version = registry.version();
+        } finally {
+            writeLock.unlock();
+        }
+
+        log.info("{} tool {} (registry version {})", previous == null ? "Registered" : "Replaced", tool.getName(), version);
+        eventPublisher.publishEvent(new ToolRegistryChangedEvent(tool.getName(), true, version));
+        return previous;
+    }
+
+    /**
+     * Removes a tool; calls already running finish, later calls get "tool not found"
+     *
+     * @return the removed tool, or null if none was registered under that name
+     */
+    public MCPTool unregister(String name) {
+        MCPTool removed;
+        long version;
+        writeLock.lock();
+        try {
+            if (!registry.byName().containsKey(name)) {
+                return null;
+            }
+            Map<String, MCPTool> byName = new LinkedHashMap<>(registry.byName());
+            removed = byName.remove(name);
+            registry = snapshot(byName, registry.version() + 1);
+            version = registry.version();
+        } finally {
+            writeLock.unlock();
+        }
+
+        log.info("Unregistered tool {} (registry version {})", name, version);
+        eventPublisher.publishEvent(new ToolRegistryChangedEvent(name, false, version));
+        return removed;
+    }
+
+    public long getRegistryVersion() {
+        return registry.version();
     }
 
     /**
      * Get tools in OpenAI function calling format for Ollama
      */
     public List<Map<String, Object>> getToolsAsOpenAIFormat() {
+        return toOpenAIFormat(registry.tools());
+    }
+
+    /**
+     * Pre-serialized {@link #getToolsAsOpenAIFormat()}, ready to be written into a request body
+     */
+    public RawJson getToolDefinitions() {
+        return registry.definitions();
+    }
+
+    private Registry snapshot(Map<String, MCPTool> byName, long version) {
+        List<MCPTool> tools = List.copyOf(byName.values());
+        try {
+            return new Registry(Collections.unmodifiableMap(byName), tools,
+                    RawJson.of(objectMapper, toOpenAIFormat(tools)), version);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Tool definitions cannot be serialized", e);
+        }
+    }
+
+    private static List<Map<String, Object>> toOpenAIFormat(List<MCPTool> tools) {
         return tools.stream()
                 .map(tool -> Map.of(
                     "type", "function",
@@ -70,16 +175,17 @@ public class MCPServerConfig {
      * Get MCP server information
      */
     public Map<String, Object> getServerInfo() {
+        Registry current = registry;
         return Map.of(
             "name", serverName,
             "version", serverVersion,
             "protocol_version", "1.0",
             "capabilities", Map.of(
                 "tools", Map.of(
-                    "available", tools.size()
+                    "available", current.tools().size(),
+                    "registry_version", current.version()
                 )
             )
         );
     }
 }
-
@@ -26,5 +26,21 @@ public interface MCPTool {
      * Execute the tool with the given arguments
      */
     String execute(Map<String, Object> arguments);
+
+    /**
+     * Whether the tool output is already a user-ready answer, so a lone call to this tool
+     * can be returned without asking the LLM to rephrase it
+     */
+    default boolean supportsDirectAnswer() {
+        return false;
+    }
+
+    /**
+     * Render successful tool output as the final answer - only used if {@link #supportsDirectAnswer()}.
+     * Returns null if this output is not a final answer, e.g. a lookup that found nothing.
+     */
+    default String formatDirectAnswer(Map<String, Object> arguments, String result) {
+        return result;
+    }
 }
 
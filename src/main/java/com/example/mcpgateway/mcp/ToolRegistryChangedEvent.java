@@ -0,0 +1,9 @@
+package com.example.mcpgateway.mcp;
+
+/**
+ * Published when a tool is registered, replaced or unregistered at runtime
+ *
+ * @param registered false if the tool was removed
+ * @param version    registry version after the change
+ */
+public record ToolRegistryChangedEvent(String toolName, boolean registered, long version) {}
@@ -2,14 +2,14 @@ package com.example.mcpgateway.mcp.tools;
 
 import com.example.mcpgateway.dto.ExchangeRate;
 import com.example.mcpgateway.mcp.MCPTool;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.mcpgateway.service.ExchangeRateIndex;
+import com.example.mcpgateway.service.ExchangeRateSnapshotService;
+import com.example.mcpgateway.trace.Span;
+import com.example.mcpgateway.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,19 +17,26 @@ import java.util.stream.Collectors;
 @Component
 public class GetExchangeRatesTool implements MCPTool {
 
+    public static final String NAME = "get_exchange_rates";
+
+    /**
+     * Start of every result that found no rates - a lookup that may need another route (e.g. via USD)
+     */
+    public static final String NO_RATES_PREFIX = "No exchange rate";
+
     private static final Logger log = LoggerFactory.getLogger(GetExchangeRatesTool.class);
     
-    private final RestClient paymentGatewayRestClient;
-    private final ObjectMapper objectMapper;
+    private final ExchangeRateSnapshotService snapshotService;
+    private final Tracer tracer;
 
-    public GetExchangeRatesTool(@Qualifier("paymentGatewayRestClient") RestClient paymentGatewayRestClient) {
-        this.paymentGatewayRestClient = paymentGatewayRestClient;
-        this.objectMapper = new ObjectMapper();
+    public GetExchangeRatesTool(ExchangeRateSnapshotService snapshotService, Tracer tracer) {
+        this.snapshotService = snapshotService;
+        this.tracer = tracer;
     }
 
     @Override
     public String getName() {
-        return "get_exchange_rates";
+        return NAME;
     }
 
     @Override
@@ -56,7 +63,7 @@ public class GetExchangeRatesTool implements MCPTool {
 
     @Override
     public String execute(Map<String, Object> arguments) {
-        try {
+        try (Span span = tracer.startSpan(NAME + ".execute")) {
             String fromCurrency = arguments.get("fromCurrency") != null 
                 ? ((String) arguments.get("fromCurrency")).toUpperCase() 
                 : null;
@@ -65,63 +72,24 @@ public class GetExchangeRatesTool implements MCPTool {
                 : null;
             
             log.info("Fetching exchange rates: from={}, to={}", fromCurrency, toCurrency);
+            span.setAttribute("fromCurrency", fromCurrency).setAttribute("toCurrency", toCurrency);
             
-            // Call payment gateway service with pagination
-            String endpoint = "/paymentgw/config/exchange-rates?page=0&size=100";
-            
+            // Answer from the in-memory snapshot - the gateway is only hit when it is missing or too stale
+            ExchangeRateIndex rates;
             try {
-                String responseBody = paymentGatewayRestClient.get()
-                        .uri(endpoint)
-                        .retrieve()
-                        .body(String.class);
-                
-                if (responseBody != null) {
-                    // Parse paginated response
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> paginatedResponse = (Map<String, Object>) objectMapper.readValue(
-                        responseBody, 
-                        Map.class
-                    );
-                    
-                    // Extract content array
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> contentList = (List<Map<String, Object>>) paginatedResponse.get("content");
-                    
-                    // Convert to ExchangeRate objects
-                    List<ExchangeRate> allRates = new ArrayList<>();
-                    for (Map<String, Object> item : contentList) {
-                        String json = objectMapper.writeValueAsString(item);
-                        ExchangeRate rate = objectMapper.readValue(json, ExchangeRate.class);
-                        allRates.add(rate);
-                    }
-                    
-                    // Filter based on parameters
-                    List<ExchangeRate> filteredRates = allRates;
-                    
-                    if (fromCurrency != null) {
-                        final String fromCurr = fromCurrency;
-                        filteredRates = filteredRates.stream()
-                            .filter(rate -> rate.getFromCurrencyAlphabeticCode().equalsIgnoreCase(fromCurr))
-                            .collect(Collectors.toList());
-                    }
-                    
-                    if (toCurrency != null) {
-                        final String toCurr = toCurrency;
-                        filteredRates = filteredRates.stream()
-                            .filter(rate -> rate.getToCurrencyAlphabeticCode().equalsIgnoreCase(toCurr))
-                            .collect(Collectors.toList());
-                    }
-                    
-                    return formatExchangeRates(filteredRates, fromCurrency, toCurrency);
-                }
-                
+                rates = snapshotService.getSnapshot().index();
             } catch (Exception e) {
                 log.error("Failed to fetch exchange rates from payment gateway", e);
+                span.setError(e.getMessage());
                 return String.format("Error: Unable to fetch exchange rates from payment gateway. Service may be unavailable. Details: %s", 
                     e.getMessage());
             }
             
-            return "No exchange rate data available";
+            // Pair / from / to lookups are direct index probes
+            List<ExchangeRate> filteredRates = rates.find(fromCurrency, toCurrency);
+            span.setAttribute("rows", filteredRates.size());
+            
+            return formatExchangeRates(filteredRates, fromCurrency, toCurrency);
             
         } catch (Exception e) {
             log.error("Error executing get_exchange_rates tool", e);
@@ -129,17 +97,44 @@ public class GetExchangeRatesTool implements MCPTool {
         }
     }
 
+    @Override
+    public boolean supportsDirectAnswer() {
+        return true;
+    }
+
+    /**
+     * The formatted rates only need their line breaks kept for markdown rendering. An empty lookup
+     * is not an answer: the model may still find the rate another way, e.g. as a cross rate via USD.
+     */
+    @Override
+    public String formatDirectAnswer(Map<String, Object> arguments, String result) {
+        if (result.startsWith(NO_RATES_PREFIX)) {
+            return null;
+        }
+        StringBuilder markdown = new StringBuilder();
+        for (String line : result.split("\n")) {
+            if (line.startsWith("• ")) {
+                markdown.append("- ").append(line.substring(2)).append('\n');
+            } else if (line.isBlank()) {
+                markdown.append('\n');
+            } else {
+                markdown.append(line).append("  \n");
+            }
+        }
+        return markdown.toString().trim();
+    }
+
     private String formatExchangeRates(List<ExchangeRate> rates, String fromCurrency, String toCurrency) {
         if (rates.isEmpty()) {
             if (fromCurrency != null && toCurrency != null) {
-                return String.format("No exchange rate found for %s to %s currency pair.", 
+                return String.format(NO_RATES_PREFIX + " found for %s to %s currency pair.", 
                     fromCurrency, toCurrency);
             } else if (fromCurrency != null) {
-                return String.format("No exchange rates found from %s currency.", fromCurrency);
+                return String.format(NO_RATES_PREFIX + "s found from %s currency.", fromCurrency);
             } else if (toCurrency != null) {
-                return String.format("No exchange rates found to %s currency.", toCurrency);
+                return String.format(NO_RATES_PREFIX + "s found to %s currency.", toCurrency);
             }
-            return "No exchange rates configured in the system.";
+            return NO_RATES_PREFIX + "s configured in the system.";
         }
         
         StringBuilder result = new StringBuilder();
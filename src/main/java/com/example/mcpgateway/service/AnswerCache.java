@@ -0,0 +1,188 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.mcp.ToolRegistryChangedEvent;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of final answers keyed on the normalized question.
+ * Entries expire after a TTL and remember which tools their answer was built from,
+ * so new tool data (a changed exchange rate snapshot) evicts exactly the affected answers.
+ * An answer still being computed when its tools' data changed is not stored: callers take
+ * {@link #generation()} before computing and pass it to {@link #put}.
+ */
+@Service
+public class AnswerCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerCache.class);
+
+    private record Entry(String answer, Set<String> dependsOn, long expiresAtNanos) {}
+
+    @Value("${llm.answer-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.answer-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${llm.answer-cache.ttl:10m}")
+    private Duration ttl;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Bumped by every invalidation; per tool, the generation its answers were last invalidated at
+    private volatile long generation;
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong staleDrops = new AtomicLong();
+
+    /**
+     * Cached answer for the normalized question, or null
+     */
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return entry.answer();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Take before computing an answer that may be cached
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache the answer unless a tool it depends on was invalidated after the given generation
+     */
+    public void put(String key, String answer, Set<String> dependsOn, long generation) {
+        if (!enabled || answer == null || answer.isBlank()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (String toolName : dependsOn) {
+                if (invalidatedAt.getOrDefault(toolName, Long.MIN_VALUE) > generation) {
+                    // Built from data that was replaced while it was being computed
+                    staleDrops.incrementAndGet();
+                    return;
+                }
+            }
+            entries.put(key, new Entry(answer, Set.copyOf(dependsOn), System.nanoTime() + ttl.toNanos()));
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every answer that was built from the given tool's output
+     */
+    public int invalidateDependingOn(String toolName) {
+        int removed = 0;
+        lock.lock();
+        try {
+            invalidatedAt.put(toolName, ++generation);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().dependsOn().contains(toolName)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        invalidations.addAndGet(removed);
+        return removed;
+    }
+
+    @EventListener
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent event) {
+        int removed = invalidateDependingOn(GetExchangeRatesTool.NAME);
+        log.info("Exchange rates changed ({} rates), evicted {} cached answer(s)", event.rates(), removed);
+    }
+
+    @EventListener
+    public void onToolRegistryChanged(ToolRegistryChangedEvent event) {
+        int removed = invalidateDependingOn(event.toolName());
+        log.info("Tool {} changed, evicted {} cached answer(s)", event.toolName(), removed);
+    }
+
+    long hitCount() {
+        return hits.get();
+    }
+
+    long missCount() {
+        return misses.get();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("staleDrops", staleDrops.get());
+        return stats;
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+
+/**
+ * Receives incremental output of a streamed answer
+ */
+public interface AnswerStreamListener {
+
+    /**
+     * A piece of answer text as soon as the LLM produced it
+     */
+    void onToken(String text);
+
+    /**
+     * The model finished emitting a tool call and it is being dispatched
+     */
+    void onToolCall(ToolCall toolCall);
+
+    /**
+     * A dispatched tool call returned
+     */
+    void onToolResult(ToolCall toolCall, ToolResult result);
+
+    /**
+     * The answer is complete
+     */
+    void onComplete();
+
+    /**
+     * The answer failed - no further events follow
+     */
+    void onError(String message);
+}
@@ -0,0 +1,113 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bookkeeping for one execution of the ask pipeline - which tools the answer depends on,
+ * whether any step failed (failed answers are never cached), and how many agent steps it took
+ * with the time spent waiting on the LLM versus on tools
+ */
+public class AskContext {
+
+    private final Set<String> toolsUsed = ConcurrentHashMap.newKeySet();
+    private volatile boolean failed;
+
+    private final AtomicInteger llmCalls = new AtomicInteger();
+    private final AtomicInteger toolRounds = new AtomicInteger();
+    private final AtomicInteger toolCalls = new AtomicInteger();
+    private final AtomicLong llmNanos = new AtomicLong();
+    private final AtomicLong toolNanos = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+
+    public void recordToolCall(ToolCall toolCall, ToolResult result) {
+        toolsUsed.add(toolCall.getName());
+        toolCalls.incrementAndGet();
+        // A stale fallback is good enough to answer with, but not to cache
+        if (!result.isSuccess() || result.isStale() || (result.getResult() != null && result.getResult().startsWith("Error"))) {
+            failed = true;
+        }
+    }
+
+    public void recordToolCalls(List<ToolCall> toolCalls, List<ToolResult> results) {
+        for (int i = 0; i < toolCalls.size(); i++) {
+            recordToolCall(toolCalls.get(i), results.get(i));
+        }
+    }
+
+    public void recordLlmCall(long nanos, long tokensUsed) {
+        llmCalls.incrementAndGet();
+        llmNanos.addAndGet(nanos);
+        tokens.addAndGet(tokensUsed);
+    }
+
+    /**
+     * One turn of tool calls; nanos is the time the pipeline waited for them
+     */
+    public void recordToolRound(long nanos) {
+        toolRounds.incrementAndGet();
+        toolNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Adopt the outcome of another execution whose answer this request shares
+     */
+    public void merge(AskContext other) {
+        toolsUsed.addAll(other.toolsUsed);
+        if (other.failed) {
+            failed = true;
+        }
+        llmCalls.addAndGet(other.llmCalls.get());
+        toolRounds.addAndGet(other.toolRounds.get());
+        toolCalls.addAndGet(other.toolCalls.get());
+        llmNanos.addAndGet(other.llmNanos.get());
+        toolNanos.addAndGet(other.toolNanos.get());
+        tokens.addAndGet(other.tokens.get());
+    }
+
+    public void markFailed() {
+        failed = true;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public Set<String> getToolsUsed() {
+        return Set.copyOf(toolsUsed);
+    }
+
+    public long getTokensUsed() {
+        return tokens.get();
+    }
+
+    /**
+     * "llm" if the model was asked, "tools" if only tools ran (fast path), otherwise "cache"
+     */
+    public String getAnswerSource() {
+        if (llmCalls.get() > 0) {
+            return "llm";
+        }
+        return toolCalls.get() > 0 ? "tools" : "cache";
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("llmCalls", llmCalls.get());
+        stats.put("toolRounds", toolRounds.get());
+        stats.put("toolCalls", toolCalls.get());
+        stats.put("llmMs", TimeUnit.NANOSECONDS.toMillis(llmNanos.get()));
+        stats.put("toolMs", TimeUnit.NANOSECONDS.toMillis(toolNanos.get()));
+        stats.put("tokens", tokens.get());
+        return stats;
+    }
+}
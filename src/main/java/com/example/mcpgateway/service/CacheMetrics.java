@@ -0,0 +1,45 @@
+package com.example.mcpgateway.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the answer caches' and fast path's existing counters as gateway.cache.requests, read at
+ * scrape time. Kept apart from {@link PipelineMetrics} so the caches need not depend on it.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final AnswerCache answerCache;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final FastPathRouter fastPathRouter;
+
+    public CacheMetrics(AnswerCache answerCache, SemanticAnswerCache semanticAnswerCache, FastPathRouter fastPathRouter) {
+        this.answerCache = answerCache;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.fastPathRouter = fastPathRouter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, answerCache, "answer", "hit", cache -> cache.hitCount());
+        register(registry, answerCache, "answer", "miss", cache -> cache.missCount());
+        register(registry, semanticAnswerCache, "semantic", "hit", cache -> cache.hitCount());
+        register(registry, semanticAnswerCache, "semantic", "miss", cache -> cache.missCount());
+        // The fast path is a cache of sorts: a hit skips the LLM entirely
+        register(registry, fastPathRouter, "fastpath", "hit", router -> router.hitCount());
+        register(registry, fastPathRouter, "fastpath", "miss", router -> router.fallThroughCount());
+        register(registry, fastPathRouter, "fastpath", "failed", router -> router.failedCount());
+    }
+
+    private static <T> void register(MeterRegistry registry, T source, String cache, String result, ToDoubleFunction<T> count) {
+        FunctionCounter.builder("gateway.cache.requests", source, count)
+                .description("Lookups in the answer caches and the fast path")
+                .tags("cache", cache, "result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.mcpgateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive admission control for the ask pipeline (gradient algorithm).
+ * The limit follows the ratio of long-term to recent LLM latency: when the upstream slows down,
+ * recent latency rises above the baseline and the limit shrinks; when it recovers the limit grows
+ * again. Requests over the limit wait in a bounded FIFO queue until their deadline, then are shed.
+ */
+@Service
+public class ConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    @Value("${llm.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${llm.admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${llm.admission.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${llm.admission.queue-size:200}")
+    private int queueSize;
+
+    @Value("${llm.admission.max-wait:5s}")
+    private Duration maxWait;
+
+    // Weight of a new limit estimate; small values keep the limit from jumping on one slow call
+    @Value("${llm.admission.smoothing:0.2}")
+    private double smoothing;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitAvailable = lock.newCondition();
+
+    private double limit = -1;
+    private int inFlight;
+    private int queued;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /**
+     * Waits for a permit until the request's deadline.
+     * Callers that get true must call {@link #release()} exactly once.
+     *
+     * @return false if the queue is full or the deadline passed - the request should be shed
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        lock.lock();
+        try {
+            initLimit();
+            if (inFlight < (int) limit && queued == 0) {
+                inFlight++;
+                admitted.incrementAndGet();
+                return true;
+            }
+            if (queued >= queueSize) {
+                rejected.incrementAndGet();
+                return false;
+            }
+
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timedOut.incrementAndGet();
+                        return false;
+                    }
+                    permitAvailable.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.incrementAndGet();
+                return false;
+            } finally {
+                queued--;
+            }
+
+            inFlight++;
+            admitted.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            inFlight--;
+            permitAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds one LLM round trip into the limit estimate
+     */
+    public void onLlmLatency(long nanos) {
+        if (!enabled || nanos <= 0) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            initLimit();
+            if (longRttNanos == 0) {
+                longRttNanos = nanos;
+                shortRttNanos = nanos;
+                return;
+            }
+
+            // Short window follows the last few calls, long window is the baseline
+            shortRttNanos = shortRttNanos * 0.7 + nanos * 0.3;
+            longRttNanos = longRttNanos * 0.95 + nanos * 0.05;
+
+            // Let the baseline drift down quickly when the upstream gets faster
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+
+            // Grow only when the limit is actually used; an idle gateway proves nothing
+            double headroom = inFlight >= limit / 2 ? Math.sqrt(limit) : 0;
+            double estimate = limit * gradient + headroom;
+
+            double previous = limit;
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + estimate * smoothing));
+            if ((int) limit > (int) previous) {
+                permitAvailable.signalAll();
+            }
+            if (Math.abs(limit - previous) >= 1) {
+                log.debug("Concurrency limit {} -> {} (latency {} ms, baseline {} ms)", (int) previous, (int) limit,
+                        TimeUnit.NANOSECONDS.toMillis((long) shortRttNanos), TimeUnit.NANOSECONDS.toMillis((long) longRttNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suggested client back-off: roughly one LLM round trip, at least a second
+     */
+    public long retryAfterSeconds() {
+        lock.lock();
+        try {
+            return Math.max(1, Math.min(60, Math.round(shortRttNanos / 1_000_000_000.0)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.lock();
+        try {
+            initLimit();
+            stats.put("limit", (int) limit);
+            stats.put("inFlight", inFlight);
+            stats.put("queued", queued);
+            stats.put("llmLatencyMs", TimeUnit.NANOSECONDS.toMillis((long) shortRttNanos));
+            stats.put("llmBaselineLatencyMs", TimeUnit.NANOSECONDS.toMillis((long) longRttNanos));
+        } finally {
+            lock.unlock();
+        }
+        stats.put("admitted", admitted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        return stats;
+    }
+
+    private void initLimit() {
+        if (limit < 0) {
+            limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.mcpgateway.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds the bytes read through it to a counter - response sizes for metrics and JFR events
+ * without buffering the body
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final AtomicLong count;
+
+    CountingInputStream(InputStream in, AtomicLong count) {
+        super(in);
+        this.count = count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count.incrementAndGet();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count.addAndGet(read);
+        }
+        return read;
+    }
+}
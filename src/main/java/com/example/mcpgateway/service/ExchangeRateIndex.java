@@ -0,0 +1,240 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable lookup structure over a set of exchange rates.
+ * Three-letter ISO codes are packed into 15-bit ints (5 bits per letter) and a currency pair
+ * into one 30-bit int, so pair, from-currency and to-currency lookups are a primitive hash probe
+ * returning a pre-built list - no scanning and no allocation per query.
+ * Codes that are not three ASCII letters go to small string-keyed fallback maps.
+ */
+public final class ExchangeRateIndex {
+
+    private static final int NOT_PACKABLE = -1;
+
+    private final List<ExchangeRate> all;
+    private final IntRateMap byPair;
+    private final IntRateMap byFrom;
+    private final IntRateMap byTo;
+    private final Map<String, List<ExchangeRate>> fallback;
+    private final int contentHash;
+
+    private ExchangeRateIndex(List<ExchangeRate> rates) {
+        this.all = List.copyOf(rates);
+
+        IntRateMap pairs = new IntRateMap(all.size());
+        IntRateMap froms = new IntRateMap(all.size());
+        IntRateMap tos = new IntRateMap(all.size());
+        Map<String, List<ExchangeRate>> other = new HashMap<>();
+
+        int hash = 1;
+        for (ExchangeRate rate : all) {
+            hash = 31 * hash + Objects.hash(rate.getFromCurrencyAlphabeticCode(), rate.getToCurrencyAlphabeticCode(),
+                    rate.getExchangeRate(), rate.getPaymentMethods());
+
+            int from = packCode(rate.getFromCurrencyAlphabeticCode());
+            int to = packCode(rate.getToCurrencyAlphabeticCode());
+
+            if (from != NOT_PACKABLE && to != NOT_PACKABLE) {
+                pairs.computeIfAbsent(packPair(from, to)).add(rate);
+            } else {
+                other.computeIfAbsent(pairKey(rate.getFromCurrencyAlphabeticCode(), rate.getToCurrencyAlphabeticCode()),
+                        k -> new ArrayList<>()).add(rate);
+            }
+
+            if (from != NOT_PACKABLE) {
+                froms.computeIfAbsent(from).add(rate);
+            } else {
+                other.computeIfAbsent(fromKey(rate.getFromCurrencyAlphabeticCode()), k -> new ArrayList<>()).add(rate);
+            }
+
+            if (to != NOT_PACKABLE) {
+                tos.computeIfAbsent(to).add(rate);
+            } else {
+                other.computeIfAbsent(toKey(rate.getToCurrencyAlphabeticCode()), k -> new ArrayList<>()).add(rate);
+            }
+        }
+
+        pairs.freeze();
+        froms.freeze();
+        tos.freeze();
+        other.replaceAll((key, list) -> List.copyOf(list));
+
+        this.byPair = pairs;
+        this.byFrom = froms;
+        this.byTo = tos;
+        this.fallback = Map.copyOf(other);
+        this.contentHash = hash;
+    }
+
+    public static ExchangeRateIndex of(List<ExchangeRate> rates) {
+        return new ExchangeRateIndex(rates);
+    }
+
+    /**
+     * All rates in gateway order
+     */
+    public List<ExchangeRate> all() {
+        return all;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Hash over pairs, rates and payment methods - equal for snapshots with the same content
+     */
+    public int contentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Rates matching the given currencies (case-insensitive); a null currency matches any.
+     * The returned list is immutable and shared.
+     */
+    public List<ExchangeRate> find(String fromCurrency, String toCurrency) {
+        if (fromCurrency != null && toCurrency != null) {
+            return byPair(fromCurrency, toCurrency);
+        } else if (fromCurrency != null) {
+            return byFrom(fromCurrency);
+        } else if (toCurrency != null) {
+            return byTo(toCurrency);
+        }
+        return all;
+    }
+
+    public List<ExchangeRate> byPair(String fromCurrency, String toCurrency) {
+        int from = packCode(fromCurrency);
+        int to = packCode(toCurrency);
+        if (from != NOT_PACKABLE && to != NOT_PACKABLE) {
+            return byPair.getOrEmpty(packPair(from, to));
+        }
+        return fallback.getOrDefault(pairKey(fromCurrency, toCurrency), List.of());
+    }
+
+    public List<ExchangeRate> byFrom(String fromCurrency) {
+        int from = packCode(fromCurrency);
+        if (from != NOT_PACKABLE) {
+            return byFrom.getOrEmpty(from);
+        }
+        return fallback.getOrDefault(fromKey(fromCurrency), List.of());
+    }
+
+    public List<ExchangeRate> byTo(String toCurrency) {
+        int to = packCode(toCurrency);
+        if (to != NOT_PACKABLE) {
+            return byTo.getOrEmpty(to);
+        }
+        return fallback.getOrDefault(toKey(toCurrency), List.of());
+    }
+
+    /**
+     * Whether any rate converts from or to the given currency
+     */
+    public boolean hasCurrency(String currency) {
+        return !byFrom(currency).isEmpty() || !byTo(currency).isEmpty();
+    }
+
+    /**
+     * Pack a three-letter code into 15 bits, case-insensitively; {@link #NOT_PACKABLE} otherwise
+     */
+    static int packCode(String code) {
+        if (code == null || code.length() != 3) {
+            return NOT_PACKABLE;
+        }
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = (code.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= 26) {
+                return NOT_PACKABLE;
+            }
+            packed = (packed << 5) | letter;
+        }
+        return packed;
+    }
+
+    private static int packPair(int from, int to) {
+        return (from << 15) | to;
+    }
+
+    private static String pairKey(String from, String to) {
+        return "pair:" + normalize(from) + "->" + normalize(to);
+    }
+
+    private static String fromKey(String from) {
+        return "from:" + normalize(from);
+    }
+
+    private static String toKey(String to) {
+        return "to:" + normalize(to);
+    }
+
+    private static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Minimal open-addressing map from packed int keys to rate lists - built once, then read-only.
+     * Keys are non-negative, so -1 marks an empty slot.
+     */
+    private static final class IntRateMap {
+
+        private final int[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        IntRateMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, -1);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ExchangeRate> computeIfAbsent(int key) {
+            int slot = slot(key);
+            if (keys[slot] == -1) {
+                keys[slot] = key;
+                values[slot] = new ArrayList<ExchangeRate>();
+            }
+            return (List<ExchangeRate>) values[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ExchangeRate> getOrEmpty(int key) {
+            int slot = slot(key);
+            return keys[slot] == -1 ? List.of() : (List<ExchangeRate>) values[slot];
+        }
+
+        /**
+         * Replace the mutable build lists with immutable copies
+         */
+        void freeze() {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    values[i] = List.copyOf((List<?>) values[i]);
+                }
+            }
+        }
+
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass decoder for the gateway's paginated exchange-rate responses.
+ * Rows are bound straight from the token stream into {@link ExchangeRate}s and handed to a
+ * sink as they are read - no intermediate String, Map tree or re-serialization.
+ * Understands both the flat Spring Data page layout and the nested "page" metadata object.
+ */
+class ExchangeRatePageDecoder {
+
+    /**
+     * Pagination metadata of one decoded page
+     */
+    record PageInfo(int number, int totalPages, long totalElements, int rows) {}
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rateReader;
+
+    ExchangeRatePageDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rateReader = objectMapper.readerFor(ExchangeRate.class);
+    }
+
+    PageInfo decode(InputStream body, Consumer<ExchangeRate> sink) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a paginated JSON object from the payment gateway");
+            }
+
+            int number = 0;
+            int totalPages = 1;
+            long totalElements = -1;
+            int rows = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "content" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            JsonToken element;
+                            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                                if (element == null) {
+                                    throw new IOException("Truncated page content from the payment gateway");
+                                }
+                                // A null or otherwise malformed row is skipped, not the rest of the page
+                                if (element == JsonToken.START_OBJECT) {
+                                    sink.accept(rateReader.readValue(parser));
+                                    rows++;
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "number" -> number = intValue(parser, value, number);
+                    case "totalPages" -> totalPages = intValue(parser, value, totalPages);
+                    case "totalElements" -> totalElements = longValue(parser, value, totalElements);
+                    case "page" -> {
+                        // Spring Data 3.3+ serializes page metadata as a nested object
+                        if (value == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String pageField = parser.currentName();
+                                JsonToken pageValue = parser.nextToken();
+                                switch (pageField) {
+                                    case "number" -> number = intValue(parser, pageValue, number);
+                                    case "totalPages" -> totalPages = intValue(parser, pageValue, totalPages);
+                                    case "totalElements" -> totalElements = longValue(parser, pageValue, totalElements);
+                                    default -> parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new PageInfo(number, totalPages, totalElements, rows);
+        }
+    }
+
+    private static int intValue(JsonParser parser, JsonToken token, int fallback) throws IOException {
+        return token == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : fallback;
+    }
+
+    private static long longValue(JsonParser parser, JsonToken token, long fallback) throws IOException {
+        return token == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : fallback;
+    }
+}
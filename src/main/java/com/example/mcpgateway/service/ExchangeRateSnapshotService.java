@@ -0,0 +1,318 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.trace.Span;
+import com.example.mcpgateway.trace.Tracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an in-memory snapshot of the payment gateway exchange rates.
+ * A scheduled task refreshes it in the background; readers are served stale-while-revalidate
+ * and fall back to the last good snapshot while the gateway is down.
+ */
+@Service
+public class ExchangeRateSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateSnapshotService.class);
+
+    /**
+     * Immutable, indexed set of rates as fetched at one point in time
+     */
+    public record Snapshot(ExchangeRateIndex index, Instant fetchedAt) {
+
+        public List<ExchangeRate> rates() {
+            return index.all();
+        }
+
+        public Duration age() {
+            return Duration.between(fetchedAt, Instant.now());
+        }
+    }
+
+    /**
+     * The last load that failed, on the System.nanoTime() clock
+     */
+    private record LoadFailure(long failedAtNanos, RuntimeException cause) {}
+
+    @Value("${backend.services.payment-gateway.endpoints.exchange-rates:/paymentgw/config/exchange-rates}")
+    private String exchangeRatesEndpoint;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.page-size:100}")
+    private int pageSize;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.max-parallel-pages:4}")
+    private int maxParallelPages;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.max-pages:500}")
+    private int maxPages;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.max-staleness:10m}")
+    private Duration maxStaleness;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    @Value("${backend.services.payment-gateway.exchange-rates.failure-backoff:5s}")
+    private Duration failureBackoff;
+
+    private final RestClient paymentGatewayRestClient;
+    private final TaskScheduler taskScheduler;
+    private final ExecutorService refreshExecutor;
+    private final ExchangeRatePageDecoder pageDecoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PipelineMetrics metrics;
+    private final Tracer tracer;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicBoolean backgroundRefreshRunning = new AtomicBoolean();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // Written under loadLock, cleared by the next successful load
+    private volatile LoadFailure lastFailure;
+
+    public ExchangeRateSnapshotService(
+            @Qualifier("paymentGatewayRestClient") RestClient paymentGatewayRestClient,
+            TaskScheduler taskScheduler,
+            @Qualifier("askExecutor") ExecutorService refreshExecutor,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            PipelineMetrics metrics,
+            Tracer tracer) {
+        this.paymentGatewayRestClient = paymentGatewayRestClient;
+        this.taskScheduler = taskScheduler;
+        this.refreshExecutor = refreshExecutor;
+        this.pageDecoder = new ExchangeRatePageDecoder(objectMapper);
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.tracer = tracer;
+    }
+
+    @PostConstruct
+    public void scheduleRefresh() {
+        log.info("Exchange rate snapshot: refresh every {}, ttl {}, max staleness {}",
+                refreshInterval, ttl, maxStaleness);
+        taskScheduler.scheduleWithFixedDelay(this::refreshQuietly, Instant.now(), refreshInterval);
+    }
+
+    /**
+     * Current snapshot. Fresh snapshots are returned as is, stale ones are returned while a
+     * background refresh runs, and only a missing or too stale snapshot is loaded synchronously.
+     * For failure-backoff after a failed load, requests do not try again - they get the last good
+     * snapshot (or fail) at once, and the scheduled refresh finds out when the gateway is back.
+     *
+     * @throws IllegalStateException if there is no snapshot at all and the gateway cannot be reached
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current.get();
+
+        if (snapshot != null) {
+            Duration age = snapshot.age();
+            if (age.compareTo(ttl) < 0) {
+                return snapshot;
+            }
+            if (age.compareTo(maxStaleness) < 0) {
+                refreshInBackground();
+                return snapshot;
+            }
+        }
+
+        LoadFailure failure = lastFailure;
+        if (failure != null && System.nanoTime() - failure.failedAtNanos() < failureBackoff.toNanos()) {
+            if (snapshot != null) {
+                log.debug("Payment gateway failed recently, serving exchange rate snapshot from {}", snapshot.fetchedAt());
+                return snapshot;
+            }
+            throw new IllegalStateException(failure.cause().getMessage(), failure.cause());
+        }
+
+        try {
+            return load(snapshot);
+        } catch (Exception e) {
+            if (snapshot != null) {
+                log.warn("Payment gateway unavailable, serving last good exchange rate snapshot from {}: {}",
+                        snapshot.fetchedAt(), e.getMessage());
+                return snapshot;
+            }
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load a new snapshot unless another thread already replaced {@code seen} in the meantime,
+     * or a load that failed while this caller waited for the lock already gave the answer
+     */
+    private Snapshot load(Snapshot seen) {
+        long requestedAt = System.nanoTime();
+        // Includes waiting for a load another request already started
+        Span span = tracer.startSpan("exchange_rates.load");
+        loadLock.lock();
+        try {
+            Snapshot latest = current.get();
+            if (latest != null && latest != seen && latest.age().compareTo(ttl) < 0) {
+                span.setAttribute("loadedByOther", true);
+                return latest;
+            }
+            LoadFailure failure = lastFailure;
+            if (failure != null && failure.failedAtNanos() - requestedAt > 0) {
+                span.setAttribute("failedByOther", true);
+                throw new IllegalStateException(failure.cause().getMessage(), failure.cause());
+            }
+
+            Snapshot loaded;
+            try {
+                loaded = new Snapshot(ExchangeRateIndex.of(fetchRates()), Instant.now());
+            } catch (RuntimeException e) {
+                lastFailure = new LoadFailure(System.nanoTime(), e);
+                throw e;
+            }
+            lastFailure = null;
+            current.set(loaded);
+            log.info("Loaded exchange rate snapshot with {} rates", loaded.rates().size());
+
+            if (latest != null && latest.index().contentHash() != loaded.index().contentHash()) {
+                eventPublisher.publishEvent(new ExchangeRatesChangedEvent(loaded.fetchedAt(), loaded.rates().size()));
+            }
+            span.setAttribute("rates", loaded.rates().size());
+            return loaded;
+        } catch (RuntimeException e) {
+            span.setError(e.getMessage());
+            throw e;
+        } finally {
+            loadLock.unlock();
+            span.close();
+        }
+    }
+
+    private void refreshInBackground() {
+        if (backgroundRefreshRunning.compareAndSet(false, true)) {
+            // The request that noticed the stale snapshot does not wait for the refresh - keep it out of its trace
+            tracer.runDetached(() -> refreshExecutor.execute(() -> {
+                try {
+                    refreshQuietly();
+                } finally {
+                    backgroundRefreshRunning.set(false);
+                }
+            }));
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            load(current.get());
+        } catch (Exception e) {
+            log.warn("Exchange rate snapshot refresh failed, keeping last good snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the whole rate catalogue. The first page tells how many pages there are; the rest
+     * are fetched concurrently (at most max-parallel-pages at a time), each decoding its rows
+     * directly into its own slot of the result so page order is preserved.
+     */
+    private List<ExchangeRate> fetchRates() {
+        List<ExchangeRate> firstPage = new ArrayList<>();
+        ExchangeRatePageDecoder.PageInfo pageInfo = fetchPage(0, firstPage::add);
+
+        int totalPages = pageInfo.totalPages();
+        if (totalPages <= 1) {
+            return firstPage;
+        }
+        if (totalPages > maxPages) {
+            log.warn("Payment gateway reports {} exchange rate pages, only the first {} are loaded", totalPages, maxPages);
+            totalPages = maxPages;
+        }
+
+        log.info("Fetching {} more exchange rate pages, {} at a time", totalPages - 1, maxParallelPages);
+
+        List<List<ExchangeRate>> pages = new ArrayList<>(totalPages);
+        pages.add(firstPage);
+
+        Semaphore permits = new Semaphore(maxParallelPages);
+        List<Future<?>> pending = new ArrayList<>(totalPages - 1);
+        for (int page = 1; page < totalPages; page++) {
+            int pageNumber = page;
+            List<ExchangeRate> rows = new ArrayList<>(pageSize);
+            pages.add(rows);
+
+            pending.add(refreshExecutor.submit(() -> {
+                permits.acquire();
+                try {
+                    return fetchPage(pageNumber, rows::add);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            // A partial catalogue would silently lose rates - keep the last good snapshot instead
+            pending.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Failed to fetch exchange rate page: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            pending.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching exchange rate pages", e);
+        }
+
+        List<ExchangeRate> allRates = new ArrayList<>(pages.stream().mapToInt(List::size).sum());
+        pages.forEach(allRates::addAll);
+        return allRates;
+    }
+
+    private ExchangeRatePageDecoder.PageInfo fetchPage(int page, Consumer<ExchangeRate> sink) {
+        String endpoint = exchangeRatesEndpoint + "?page=" + page + "&size=" + pageSize;
+
+        long start = System.nanoTime();
+        String outcome = PipelineMetrics.ERROR;
+        AtomicLong bytes = new AtomicLong();
+        Span span = tracer.startSpan("payment.fetch").setAttribute("page", page);
+        try {
+            ExchangeRatePageDecoder.PageInfo pageInfo = paymentGatewayRestClient.get()
+                    .uri(endpoint)
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            throw new IllegalStateException("Payment gateway returned " + response.getStatusCode() + " for page " + page);
+                        }
+                        // Rows are decoded straight off the response stream
+                        return pageDecoder.decode(new CountingInputStream(response.getBody(), bytes), sink);
+                    });
+            outcome = PipelineMetrics.SUCCESS;
+            return pageInfo;
+        } catch (RuntimeException e) {
+            span.setError(e.getMessage());
+            throw e;
+        } finally {
+            metrics.recordGatewayFetch(outcome, System.nanoTime() - start, bytes.get());
+            span.setAttribute("bytes", bytes.get()).close();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.mcpgateway.service;
+
+import java.time.Instant;
+
+/**
+ * Published when a refreshed exchange rate snapshot differs from the previous one
+ */
+public record ExchangeRatesChangedEvent(Instant fetchedAt, int rates) {}
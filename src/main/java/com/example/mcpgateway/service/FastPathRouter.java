@@ -0,0 +1,231 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic pre-LLM router for simple rate lookups.
+ * Recognizes currency-pair lookups, "all rates from X" and "payment methods for X → Y",
+ * calls the tool directly and renders the answer from a template - no LLM round-trip.
+ * Payment method questions get their own template listing every method of the pair.
+ * Patterns are anchored to the whole question and both currencies must exist in the current
+ * snapshot, so anything unusual or ambiguous falls through to the LLM.
+ */
+@Service
+public class FastPathRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(FastPathRouter.class);
+
+    enum Intent { PAIR, ALL_FROM, PAYMENT_METHODS }
+
+    private record Match(Intent intent, String fromCurrency, String toCurrency) {}
+
+    private static final String CODE = "([a-z]{3})";
+    private static final String SEPARATOR = "(?:\\s+(?:to|into|in)\\s+|\\s*(?:→|->|/|-)\\s*)";
+
+    private static final Pattern PAIR = Pattern.compile(
+            "^(?:(?:what(?:'s| is)|show(?: me)?|get|give me)\\s+)?(?:the\\s+)?(?:current\\s+)?"
+                    + "(?:exchange\\s+)?(?:rate\\s+)?(?:(?:for|from|of)\\s+)?"
+                    + CODE + SEPARATOR + CODE + "(?:\\s+(?:exchange\\s+)?rate)?$");
+
+    private static final Pattern ALL_FROM = Pattern.compile(
+            "^(?:(?:show(?: me)?|list|get|give me|what are|what)\\s+)?(?:all\\s+)?(?:the\\s+)?(?:available\\s+)?"
+                    + "(?:exchange\\s+)?rates\\s+(?:are\\s+)?(?:available\\s+)?from\\s+" + CODE + "$");
+
+    private static final Pattern PAYMENT_METHODS = Pattern.compile(
+            "^(?:(?:what|which)\\s+)?(?:are\\s+the\\s+)?payment\\s+methods?\\s+(?:are\\s+|(?:can|do)\\s+i\\s+use\\s+)?"
+                    + "(?:(?:available\\s+for|supports?|for)\\s+)?"
+                    + CODE + SEPARATOR + CODE + "(?:\\s+conversion)?$");
+
+    @Value("${llm.fast-path.enabled:true}")
+    private boolean enabled;
+
+    private final ToolDispatchService toolDispatchService;
+    private final ExchangeRateSnapshotService snapshotService;
+
+    private final Map<Intent, AtomicLong> hits = new EnumMap<>(Intent.class);
+    private final AtomicLong fallThrough = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public FastPathRouter(ToolDispatchService toolDispatchService, ExchangeRateSnapshotService snapshotService) {
+        this.toolDispatchService = toolDispatchService;
+        this.snapshotService = snapshotService;
+        for (Intent intent : Intent.values()) {
+            hits.put(intent, new AtomicLong());
+        }
+    }
+
+    /**
+     * Answer the question without the LLM, or return null if it should go to the LLM
+     */
+    public String route(String question, AskContext context) {
+        if (!enabled || question == null) {
+            return null;
+        }
+
+        Match match = match(normalize(question));
+        if (match == null || !knownCurrencies(match)) {
+            fallThrough.incrementAndGet();
+            return null;
+        }
+
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("fromCurrency", match.fromCurrency());
+        if (match.toCurrency() != null) {
+            arguments.put("toCurrency", match.toCurrency());
+        }
+
+        ToolCall toolCall = new ToolCall("fastpath_" + UUID.randomUUID().toString().substring(0, 8),
+                GetExchangeRatesTool.NAME, arguments);
+        ToolResult result = toolDispatchService.dispatchAsync(toolCall).join();
+        context.recordToolCall(toolCall, result);
+
+        String answer = toolDispatchService.formatDirectAnswer(toolCall, result);
+        if (answer != null && match.intent() == Intent.PAYMENT_METHODS) {
+            // The pair answer abbreviates long method lists and only counts them across several rows
+            answer = paymentMethods(match);
+        }
+        if (answer == null) {
+            // Let the LLM explain failures and look for another route when nothing was found
+            failed.incrementAndGet();
+            return null;
+        }
+
+        hits.get(match.intent()).incrementAndGet();
+        log.info("Fast path answered {} for {} → {}", match.intent(), match.fromCurrency(), match.toCurrency());
+        return heading(match) + "\n\n" + answer;
+    }
+
+    long hitCount() {
+        return hits.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    long fallThroughCount() {
+        return fallThrough.get();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> byIntent = new LinkedHashMap<>();
+        long totalHits = 0;
+        for (Map.Entry<Intent, AtomicLong> entry : hits.entrySet()) {
+            byIntent.put(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue().get());
+            totalHits += entry.getValue().get();
+        }
+        long total = totalHits + fallThrough.get() + failed.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", totalHits);
+        stats.put("hitsByIntent", byIntent);
+        stats.put("fallThrough", fallThrough.get());
+        stats.put("failed", failed.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) totalHits / total);
+        return stats;
+    }
+
+    private static String normalize(String question) {
+        return question.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("[?.!\\s]+$", "");
+    }
+
+    private static Match match(String text) {
+        Matcher matcher = PAYMENT_METHODS.matcher(text);
+        if (matcher.matches()) {
+            return pair(Intent.PAYMENT_METHODS, matcher);
+        }
+
+        matcher = ALL_FROM.matcher(text);
+        if (matcher.matches()) {
+            return new Match(Intent.ALL_FROM, matcher.group(1).toUpperCase(Locale.ROOT), null);
+        }
+
+        matcher = PAIR.matcher(text);
+        if (matcher.matches()) {
+            return pair(Intent.PAIR, matcher);
+        }
+
+        return null;
+    }
+
+    private static Match pair(Intent intent, Matcher matcher) {
+        String from = matcher.group(1).toUpperCase(Locale.ROOT);
+        String to = matcher.group(2).toUpperCase(Locale.ROOT);
+        return from.equals(to) ? null : new Match(intent, from, to);
+    }
+
+    private boolean knownCurrencies(Match match) {
+        try {
+            ExchangeRateIndex index = snapshotService.getSnapshot().index();
+            return index.hasCurrency(match.fromCurrency())
+                    && (match.toCurrency() == null || index.hasCurrency(match.toCurrency()));
+        } catch (Exception e) {
+            log.debug("No exchange rate snapshot for fast path: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Every distinct payment method over all of the pair's rates, in gateway order
+     */
+    private String paymentMethods(Match match) {
+        List<ExchangeRate> rates;
+        try {
+            rates = snapshotService.getSnapshot().index().byPair(match.fromCurrency(), match.toCurrency());
+        } catch (Exception e) {
+            log.debug("No exchange rate snapshot for payment methods: {}", e.getMessage());
+            return null;
+        }
+        if (rates.isEmpty()) {
+            return null;
+        }
+
+        Set<String> methods = new LinkedHashSet<>();
+        for (ExchangeRate rate : rates) {
+            if (rate.getPaymentMethods() != null) {
+                methods.addAll(rate.getPaymentMethods());
+            }
+        }
+        if (methods.isEmpty()) {
+            return String.format("No payment methods are configured for %s → %s.", match.fromCurrency(), match.toCurrency());
+        }
+
+        StringBuilder answer = new StringBuilder(String.format("%d payment method%s available:\n",
+                methods.size(), methods.size() == 1 ? "" : "s"));
+        for (String method : methods) {
+            answer.append("\n- ").append(method);
+        }
+        return answer.toString();
+    }
+
+    private static String heading(Match match) {
+        return switch (match.intent()) {
+            case PAIR -> String.format("**%s → %s exchange rate**", match.fromCurrency(), match.toCurrency());
+            case ALL_FROM -> String.format("**Exchange rates from %s**", match.fromCurrency());
+            case PAYMENT_METHODS -> String.format("**Payment methods for %s → %s**", match.fromCurrency(), match.toCurrency());
+        };
+    }
+}
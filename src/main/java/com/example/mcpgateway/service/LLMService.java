@@ -1,20 +1,40 @@
 package com.example.mcpgateway.service;
 
+import com.example.mcpgateway.dto.OllamaChatChunk;
 import com.example.mcpgateway.dto.OllamaChatRequest;
 import com.example.mcpgateway.dto.OllamaChatResponse;
 import com.example.mcpgateway.dto.ToolCall;
 import com.example.mcpgateway.dto.ToolResult;
+import com.example.mcpgateway.dto.Usage;
+import com.example.mcpgateway.jfr.LlmRoundTripEvent;
 import com.example.mcpgateway.mcp.MCPServerConfig;
+import com.example.mcpgateway.trace.Span;
+import com.example.mcpgateway.trace.Tracer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Service for interacting with LLM (DeepSeek via OpenRouter) with MCP tool support
@@ -24,95 +44,500 @@ public class LLMService {
 
     private static final Logger log = LoggerFactory.getLogger(LLMService.class);
 
+    private static final String SYSTEM_PROMPT = "You MUST use the available tools when relevant. Never guess or make up exchange rate values. Always call the get_exchange_rates tool to fetch real data from the payment gateway. If there is no direct rate for a pair, look up both legs through a common currency such as USD and combine them.";
+
+    /**
+     * Text and completed tool calls of one streamed completion
+     */
+    private record StreamedTurn(String content, List<ToolCall> toolCalls, Usage usage) {}
+
+    /**
+     * Outcome of one pipeline execution, handed to every caller that asked the same question meanwhile
+     */
+    private record SharedAnswer(String answer, AskContext context) {}
+
+    /**
+     * Generations of both answer caches, taken before an answer is computed
+     */
+    private record CacheGenerations(long exact, long semantic) {}
+
     @Value("${llm.model}")
     private String model;
 
-    private final RestClient llmRestClient;
+    @Value("${llm.direct-answer.enabled:true}")
+    private boolean directAnswerEnabled;
+
+    @Value("${llm.agent.max-iterations:5}")
+    private int maxIterations;
+
+    @Value("${llm.agent.max-tokens:20000}")
+    private long maxTokens;
+
+    @Value("${llm.agent.max-duration:60s}")
+    private Duration maxDuration;
+
+    @Value("${llm.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    // Keyed on the normalized question
+    private final SingleFlight<String, SharedAnswer> questionFlight = new SingleFlight<>();
+
+    private final LlmRouter llmRouter;
     private final MCPServerConfig mcpServerConfig;
     private final ToolDispatchService toolDispatchService;
+    private final FastPathRouter fastPathRouter;
+    private final AnswerCache answerCache;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final LlmRateLimiter rateLimiter;
+    private final PipelineMetrics metrics;
+    private final Tracer tracer;
     private final ObjectMapper objectMapper;
+    private final ObjectReader responseReader;
+    private final ObjectReader chunkReader;
+    private final ToolCallParser toolCallParser;
+    // Identical in every request, so serialized once
+    private final OllamaChatRequest.PrecomputedMessage systemMessage;
 
     public LLMService(
-            @Qualifier("llmRestClient") RestClient llmRestClient,
+            LlmRouter llmRouter,
             MCPServerConfig mcpServerConfig,
-            ToolDispatchService toolDispatchService) {
-        this.llmRestClient = llmRestClient;
+            ToolDispatchService toolDispatchService,
+            FastPathRouter fastPathRouter,
+            AnswerCache answerCache,
+            SemanticAnswerCache semanticAnswerCache,
+            ConcurrencyLimiter concurrencyLimiter,
+            LlmRateLimiter rateLimiter,
+            PipelineMetrics metrics,
+            Tracer tracer,
+            ObjectMapper objectMapper) {
+        this.llmRouter = llmRouter;
         this.mcpServerConfig = mcpServerConfig;
         this.toolDispatchService = toolDispatchService;
-        this.objectMapper = new ObjectMapper();
+        this.fastPathRouter = fastPathRouter;
+        this.answerCache = answerCache;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.objectMapper = objectMapper;
+        this.responseReader = objectMapper.readerFor(OllamaChatResponse.class);
+        this.chunkReader = objectMapper.readerFor(OllamaChatChunk.class);
+        this.toolCallParser = new ToolCallParser(objectMapper);
+        try {
+            this.systemMessage = OllamaChatRequest.PrecomputedMessage.of("system", SYSTEM_PROMPT, objectMapper);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("System prompt cannot be serialized", e);
+        }
     }
 
     /**
      * Main method to ask a question with MCP tool support
      */
     public String ask(String userQuestion) {
+        return ask(userQuestion, new AskContext());
+    }
+
+    /**
+     * Ask with caller-provided bookkeeping. Answers are served from the cache or the fast path when
+     * possible; successful answers are cached together with the tools they were built from.
+     */
+    public String ask(String userQuestion, AskContext context) {
+        String local = answerWithoutLlm(userQuestion, context);
+        return local != null ? local : askLlm(userQuestion, context);
+    }
+
+    /**
+     * The answer if it takes no LLM call - an exact or paraphrase cache hit, or a fast path lookup -
+     * otherwise null. Cheap enough to run ahead of admission control, which only guards the LLM.
+     */
+    public String answerWithoutLlm(String userQuestion, AskContext context) {
+        String cacheKey = QuestionNormalizer.normalize(userQuestion);
+        String cached = cachedAnswer(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        CacheGenerations generations = cacheGenerations();
+        String routed;
+        try {
+            routed = fastPathRouter.route(userQuestion, context);
+        } catch (Exception e) {
+            log.warn("Fast path failed, leaving the question to the LLM: {}", e.getMessage());
+            return null;
+        }
+        if (routed != null && !context.isFailed()) {
+            cacheAnswer(cacheKey, routed, context, generations);
+        }
+        return routed;
+    }
+
+    /**
+     * The LLM part of {@link #ask(String, AskContext)}, for callers that already tried
+     * {@link #answerWithoutLlm}. Concurrent askers of the same normalized question share a single
+     * pipeline execution.
+     */
+    public String askLlm(String userQuestion, AskContext context) {
+        String cacheKey = QuestionNormalizer.normalize(userQuestion);
+        if (!coalescingEnabled) {
+            return answerAndCache(userQuestion, cacheKey, context);
+        }
+
+        SharedAnswer shared = questionFlight.execute(cacheKey,
+                () -> new SharedAnswer(answerAndCache(userQuestion, cacheKey, context), context));
+        if (shared.context() != context) {
+            log.info("Shared in-flight answer for: {}", cacheKey);
+            context.merge(shared.context());
+        }
+        return shared.answer();
+    }
+
+    public Map<String, Object> getCoalescingStats() {
+        return questionFlight.getStats();
+    }
+
+    private String answerAndCache(String userQuestion, String cacheKey, AskContext context) {
+        CacheGenerations generations = cacheGenerations();
+        String answer = answer(userQuestion, context);
+        if (!context.isFailed()) {
+            cacheAnswer(cacheKey, answer, context, generations);
+        }
+        return answer;
+    }
+
+    /**
+     * Exact match on the normalized question first, then a paraphrase lookup
+     */
+    private String cachedAnswer(String cacheKey) {
+        String cached = answerCache.get(cacheKey);
+        if (cached != null) {
+            log.info("Answer cache hit for: {}", cacheKey);
+            return cached;
+        }
+        return semanticAnswerCache.get(cacheKey);
+    }
+
+    private CacheGenerations cacheGenerations() {
+        return new CacheGenerations(answerCache.generation(), semanticAnswerCache.generation());
+    }
+
+    /**
+     * Answers whose tools were invalidated after the generations were taken are not stored
+     */
+    private void cacheAnswer(String cacheKey, String answer, AskContext context, CacheGenerations generations) {
+        answerCache.put(cacheKey, answer, context.getToolsUsed(), generations.exact());
+        semanticAnswerCache.put(cacheKey, answer, context.getToolsUsed(), generations.semantic());
+    }
+
+    /**
+     * Agent loop: the model may call tools for up to max-iterations turns, each turn's calls run
+     * concurrently and go back as tool messages. After the last tool turn one more call without
+     * tools forces a final answer. Running out of tokens or time returns the latest tool output.
+     */
+    private String answer(String userQuestion, AskContext context) {
         try {
             log.info("Processing question: {}", userQuestion);
 
-            List<OllamaChatRequest.Message> messages = new ArrayList<>();
-            
-            // Add system message with tool information
-            String systemPrompt = "You MUST use the available tools when relevant. Never guess or make up exchange rate values. Always call the get_exchange_rates tool to fetch real data from the payment gateway.";
-            messages.add(new OllamaChatRequest.Message("system", systemPrompt));
-            
-            // Add user question
-            messages.add(new OllamaChatRequest.Message("user", userQuestion));
+            List<OllamaChatRequest.ChatMessage> messages = buildInitialMessages(userQuestion);
+            long deadline = System.nanoTime() + maxDuration.toNanos();
 
-            // Call with tools
-            OllamaChatRequest request = new OllamaChatRequest(model, messages);
-            request.setTools(mcpServerConfig.getToolsAsOpenAIFormat());
-            request.setTool_choice("auto");  // CRITICAL: Force tool calling
-            
-            log.info("Calling LLM with {} tools available and tool_choice=auto", mcpServerConfig.getTools().size());
-            OllamaChatResponse parsedResponse = callLLMAndParse(request);
-            
-            if (parsedResponse == null) {
-                log.error("Null response from LLM");
-                return "Error: Received null response from LLM";
-            }
-            
-            // First check for native OpenAI-style tool calls in the response object
-            List<ToolCall> toolCalls = extractNativeToolCalls(parsedResponse);
-            
-            // Get the text content
-            String responseText = extractMessageContent(parsedResponse, "(no response)");
-            
-            if (!toolCalls.isEmpty()) {
-                log.info("Extracted {} tool call(s)", toolCalls.size());
-                
-                // Execute tool calls
+            for (int step = 1; ; step++) {
+                OllamaChatRequest request = agentRequest(messages, step);
+                OllamaChatResponse parsedResponse = timedLLMCall(request, context);
+
+                if (parsedResponse == null) {
+                    log.error("Null response from LLM");
+                    context.markFailed();
+                    return "Error: Received null response from LLM";
+                }
+
+                List<ToolCall> toolCalls = request.getTools() != null ? toolCallParser.parse(parsedResponse) : List.of();
+                if (toolCalls.isEmpty()) {
+                    log.info("Answered after {} agent step(s)", step);
+                    return checked(context, extractMessageContent(parsedResponse, "(no response)"));
+                }
+
+                log.info("Agent step {}: {} tool call(s)", step, toolCalls.size());
+                long toolStart = System.nanoTime();
                 List<ToolResult> toolResults = toolDispatchService.dispatchAll(toolCalls);
-                
-                // Build a follow-up message with results
-                StringBuilder resultsMessage = new StringBuilder("Here are the results from the payment gateway:\n\n");
-                for (ToolResult result : toolResults) {
-                    resultsMessage.append(result.isSuccess() ? result.getResult() : "Error: " + result.getError());
-                    resultsMessage.append("\n\n");
+                context.recordToolRound(System.nanoTime() - toolStart);
+                context.recordToolCalls(toolCalls, toolResults);
+
+                // A lone first lookup that found what was asked needs no second round-trip. Errors and
+                // empty results go back to the model, which may find the rate another way (via USD)
+                if (step == 1) {
+                    String directAnswer = directAnswer(toolCalls, toolResults, rawContent(parsedResponse));
+                    if (directAnswer != null) {
+                        return directAnswer;
+                    }
                 }
-                resultsMessage.append("Please provide a clear, formatted answer based on these results.");
-                
-                // Ask LLM to format the final answer
-                messages.add(new OllamaChatRequest.Message("assistant", responseText));
-                messages.add(new OllamaChatRequest.Message("user", resultsMessage.toString()));
-                
-                OllamaChatRequest followUpRequest = new OllamaChatRequest(model, messages);
-                // Don't send tools on follow-up
-                OllamaChatResponse finalParsed = callLLMAndParse(followUpRequest);
-                if (finalParsed != null) {
-                    String finalResponse = extractMessageContent(finalParsed, responseText);
-                    return finalResponse != null && !finalResponse.trim().isEmpty() ? finalResponse : responseText;
+
+                addToolTurn(messages, rawContent(parsedResponse), toolCalls, toolResults);
+
+                String exhausted = exhaustedBudget(context, deadline);
+                if (exhausted != null) {
+                    log.warn("Agent loop stopped after {} step(s): {}", step, exhausted);
+                    context.markFailed();
+                    return rawToolOutput(toolResults);
                 }
-                return responseText;
             }
             
-            return responseText;
-            
         } catch (Exception e) {
             log.error("Error in ask method", e);
+            context.markFailed();
             return "Error: " + e.getMessage();
         }
     }
 
+    /**
+     * Streaming variant of {@link #ask(String)} - forwards tokens as they arrive and
+     * dispatches each tool call as soon as the model has finished emitting it
+     */
+    public void askStream(String userQuestion, AnswerStreamListener listener) {
+        askStream(userQuestion, new AskContext(), listener);
+    }
+
+    public void askStream(String userQuestion, AskContext context, AnswerStreamListener listener) {
+        String local = answerWithoutLlm(userQuestion, context);
+        if (local != null) {
+            listener.onToken(local);
+            listener.onComplete();
+            return;
+        }
+        askLlmStream(userQuestion, context, listener);
+    }
+
+    /**
+     * The LLM part of {@link #askStream(String, AskContext, AnswerStreamListener)}, for callers that
+     * already tried {@link #answerWithoutLlm}
+     */
+    public void askLlmStream(String userQuestion, AskContext context, AnswerStreamListener listener) {
+        String cacheKey = QuestionNormalizer.normalize(userQuestion);
+        CacheGenerations generations = cacheGenerations();
+        CollectingListener collector = new CollectingListener(listener);
+        streamAnswer(userQuestion, collector, context);
+
+        if (collector.isCompleted() && !context.isFailed()) {
+            cacheAnswer(cacheKey, collector.getText(), context, generations);
+        }
+    }
+
+    private void streamAnswer(String userQuestion, AnswerStreamListener listener, AskContext context) {
+        try {
+            log.info("Processing streamed question: {}", userQuestion);
+
+            List<OllamaChatRequest.ChatMessage> messages = buildInitialMessages(userQuestion);
+            long deadline = System.nanoTime() + maxDuration.toNanos();
+            List<ToolResult> toolResults = List.of();
+
+            for (int step = 1; ; step++) {
+                OllamaChatRequest request = agentRequest(messages, step);
+
+                // Tool calls are dispatched while the rest of the completion is still streaming.
+                // As in ask, calls to tools that were not offered are ignored and the turn is final
+                boolean toolsOffered = request.getTools() != null;
+                List<CompletableFuture<ToolResult>> pendingResults = new ArrayList<>();
+                long llmStart = System.nanoTime();
+                StreamedTurn turn = streamLLM(request, listener::onToken, toolCall -> {
+                    if (toolsOffered) {
+                        listener.onToolCall(toolCall);
+                        pendingResults.add(toolDispatchService.dispatchAsync(toolCall));
+                    }
+                });
+
+                if (turn == null) {
+                    context.markFailed();
+                    listener.onError("Error: Streaming call to LLM failed");
+                    return;
+                }
+                context.recordLlmCall(System.nanoTime() - llmStart, tokensUsed(turn.usage(), request));
+
+                List<ToolCall> toolCalls = toolsOffered ? turn.toolCalls() : List.of();
+                if (toolCalls.isEmpty()) {
+                    if (turn.content().isBlank()) {
+                        context.markFailed();
+                        // Better to show the raw tool output than nothing at all
+                        if (!toolResults.isEmpty()) {
+                            listener.onToken(rawToolOutput(toolResults));
+                        }
+                    }
+                    log.info("Streamed answer after {} agent step(s)", step);
+                    listener.onComplete();
+                    return;
+                }
+
+                log.info("Agent step {}: streamed {} tool call(s)", step, toolCalls.size());
+                long toolStart = System.nanoTime();
+                toolResults = new ArrayList<>();
+                for (int i = 0; i < toolCalls.size(); i++) {
+                    ToolResult result = pendingResults.get(i).join();
+                    listener.onToolResult(toolCalls.get(i), result);
+                    context.recordToolCall(toolCalls.get(i), result);
+                    toolResults.add(result);
+                }
+                context.recordToolRound(System.nanoTime() - toolStart);
+
+                // As in ask: only a successful, non-empty first lookup is returned as it is
+                if (step == 1) {
+                    String directAnswer = directAnswer(toolCalls, toolResults, turn.content());
+                    if (directAnswer != null) {
+                        listener.onToken(directAnswer);
+                        listener.onComplete();
+                        return;
+                    }
+                }
+
+                addToolTurn(messages, turn.content(), toolCalls, toolResults);
+
+                String exhausted = exhaustedBudget(context, deadline);
+                if (exhausted != null) {
+                    log.warn("Streamed agent loop stopped after {} step(s): {}", step, exhausted);
+                    context.markFailed();
+                    listener.onToken(rawToolOutput(toolResults));
+                    listener.onComplete();
+                    return;
+                }
+            }
+
+        } catch (Exception e) {
+            log.error("Error in askStream method", e);
+            context.markFailed();
+            listener.onError("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tools are offered for the first max-iterations steps; the step after that must answer
+     */
+    private OllamaChatRequest agentRequest(List<OllamaChatRequest.ChatMessage> messages, int step) {
+        // The loop keeps appending to messages - every request gets its own snapshot
+        OllamaChatRequest request = new OllamaChatRequest(model, new ArrayList<>(messages));
+        if (step <= maxIterations) {
+            request.setTools(mcpServerConfig.getToolDefinitions());
+            request.setTool_choice("auto");
+            log.info("Agent step {}: calling LLM with {} tools available", step, mcpServerConfig.getTools().size());
+        } else {
+            log.info("Agent step {}: tool budget used up, asking for the final answer", step);
+        }
+        return request;
+    }
+
+    private OllamaChatResponse timedLLMCall(OllamaChatRequest request, AskContext context) {
+        long start = System.nanoTime();
+        OllamaChatResponse response = callLLMAndParse(request);
+        context.recordLlmCall(System.nanoTime() - start, tokensUsed(response != null ? response.getUsage() : null, request));
+        return response;
+    }
+
+    /**
+     * Reported usage, or the rate limiter's estimate when the provider reports none
+     */
+    private long tokensUsed(Usage usage, OllamaChatRequest request) {
+        if (usage != null && usage.getTotal_tokens() != null) {
+            return usage.getTotal_tokens();
+        }
+        return rateLimiter.estimateTokens(request);
+    }
+
+    /**
+     * Why the loop must stop before the next LLM call, or null to go on
+     */
+    private String exhaustedBudget(AskContext context, long deadline) {
+        if (context.getTokensUsed() >= maxTokens) {
+            return "token budget of " + maxTokens + " used up";
+        }
+        if (System.nanoTime() - deadline >= 0) {
+            return "time budget of " + maxDuration + " used up";
+        }
+        return null;
+    }
+
+    /**
+     * The assistant turn with its tool calls, followed by one tool message per call
+     */
+    private void addToolTurn(List<OllamaChatRequest.ChatMessage> messages, String content,
+                             List<ToolCall> toolCalls, List<ToolResult> toolResults) throws JsonProcessingException {
+        List<OllamaChatResponse.Choice.ToolCallResponse> calls = new ArrayList<>(toolCalls.size());
+        for (ToolCall toolCall : toolCalls) {
+            OllamaChatResponse.Choice.FunctionCall function = new OllamaChatResponse.Choice.FunctionCall();
+            function.setName(toolCall.getName());
+            function.setArguments(objectMapper.writeValueAsString(
+                    toolCall.getArguments() != null ? toolCall.getArguments() : Map.of()));
+
+            OllamaChatResponse.Choice.ToolCallResponse call = new OllamaChatResponse.Choice.ToolCallResponse();
+            call.setId(toolCall.getId());
+            call.setType("function");
+            call.setFunction(function);
+            calls.add(call);
+        }
+        messages.add(OllamaChatRequest.Message.assistant(content == null || content.isBlank() ? null : content, calls));
+
+        for (int i = 0; i < toolCalls.size(); i++) {
+            ToolResult result = toolResults.get(i);
+            messages.add(OllamaChatRequest.Message.tool(toolCalls.get(i).getId(),
+                    result.isSuccess() ? result.getResult() : "Error: " + result.getError()));
+        }
+    }
+
+    /**
+     * Direct-answer policy: when the model's only action was a single tool call (no text of its own)
+     * and the tool renders its output as a final answer, return that instead of a formatting round-trip.
+     * Failed calls and lookups that found nothing are never final - see {@link ToolDispatchService#formatDirectAnswer}.
+     */
+    private String directAnswer(List<ToolCall> toolCalls, List<ToolResult> toolResults, String modelText) {
+        if (!directAnswerEnabled || toolCalls.size() != 1 || (modelText != null && !modelText.isBlank())) {
+            return null;
+        }
+
+        String answer = toolDispatchService.formatDirectAnswer(toolCalls.get(0), toolResults.get(0));
+        if (answer != null) {
+            log.info("Returning direct answer from tool {} without follow-up LLM call", toolCalls.get(0).getName());
+        }
+        return answer;
+    }
+
+    /**
+     * Debug placeholders from {@link #extractMessageContent} are not real answers
+     */
+    private String checked(AskContext context, String answer) {
+        if (answer == null || answer.startsWith("DEBUG:")) {
+            context.markFailed();
+        }
+        return answer;
+    }
+
+    private String rawContent(OllamaChatResponse response) {
+        if (response.getChoices() == null || response.getChoices().isEmpty()
+                || response.getChoices().get(0).getMessage() == null) {
+            return null;
+        }
+        return response.getChoices().get(0).getMessage().getContent();
+    }
+
+    private List<OllamaChatRequest.ChatMessage> buildInitialMessages(String userQuestion) {
+        List<OllamaChatRequest.ChatMessage> messages = new ArrayList<>();
+
+        // Add system message with tool information
+        messages.add(systemMessage);
+
+        // Add user question
+        messages.add(new OllamaChatRequest.Message("user", userQuestion));
+        return messages;
+    }
+
+    /**
+     * Last resort answer when the loop runs out of budget: the latest tool results as they are
+     */
+    private String rawToolOutput(List<ToolResult> toolResults) {
+        StringBuilder output = new StringBuilder();
+        for (ToolResult result : toolResults) {
+            output.append(result.isSuccess() ? result.getResult() : "Error: " + result.getError());
+            output.append("\n\n");
+        }
+        return output.toString().trim();
+    }
+
     private String buildSystemPrompt() {
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are a helpful AI assistant specialized in payment gateway operations.\n\n");
@@ -141,19 +566,51 @@ public class LLMService {
     }
 
     private OllamaChatResponse callLLMAndParse(OllamaChatRequest request) {
+        // One span per turn, with a child per route attempt - failover and hedging show up as siblings
+        try (Span span = tracer.startSpan("llm.turn")) {
+            span.setAttribute("messages", request.getMessages().size());
+            try {
+                return llmRouter.execute(route -> callRoute(route, request));
+            } catch (Exception e) {
+                log.error("Error calling LLM API", e);
+                span.setError(e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * One blocking attempt against one route. Throws on failure, so the router can fail over.
+     */
+    private OllamaChatResponse callRoute(LlmRoute route, OllamaChatRequest request) throws IOException {
+        OllamaChatRequest routed = request.withModel(route.getModel());
+        Span span = startCallSpan(route, false);
+        long acquireStart = System.nanoTime();
+        long reservedTokens = rateLimiter.acquire(routed);
+        span.setAttribute("rateLimitWaitMs", Duration.ofNanos(System.nanoTime() - acquireStart).toMillis());
+        if (reservedTokens < 0) {
+            endCallSpan(span, PipelineMetrics.THROTTLED, null);
+            throw new IllegalStateException("LLM rate budget exhausted, not calling the API");
+        }
+
+        long start = System.nanoTime();
+        String outcome = PipelineMetrics.ERROR;
+        Usage usage = null;
+        String responseBody = null;
+        LlmRoundTripEvent event = new LlmRoundTripEvent();
+        event.begin();
         try {
-            log.info("Calling OpenRouter API with model: {}", model);
+            log.info("Calling LLM route {} with model: {}", route.getName(), route.getModel());
             
             // OpenRouter uses OpenAI-compatible /chat/completions endpoint
-            String responseBody = llmRestClient.post()
+            responseBody = route.getRestClient().post()
                     .uri("/chat/completions")
-                    .body(request)
+                    .body(routed)
                     .retrieve()
                     .body(String.class);
 
             if (responseBody == null || responseBody.isEmpty()) {
-                log.error("Empty response from LLM API");
-                return null;
+                throw new IllegalStateException("Empty response from LLM API");
             }
             
             // Log first 500 chars of response for debugging
@@ -161,17 +618,238 @@ public class LLMService {
                 responseBody.substring(0, Math.min(500, responseBody.length())));
 
             // Parse response
-            OllamaChatResponse response = objectMapper.readValue(responseBody, OllamaChatResponse.class);
+            OllamaChatResponse response = responseReader.readValue(responseBody);
             log.info("Successfully parsed response");
+            usage = response.getUsage();
+            outcome = PipelineMetrics.SUCCESS;
             
             return response;
             
-        } catch (Exception e) {
-            log.error("Error calling LLM API", e);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            outcome = PipelineMetrics.THROTTLED;
+            rateLimiter.onThrottled(e.getResponseHeaders() != null
+                    ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null);
+            throw e;
+        } catch (JsonProcessingException e) {
+            // Not a completion, but the upstream may still have counted tokens for it
+            usage = usageOf(responseBody);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (!PipelineMetrics.THROTTLED.equals(outcome)) {
+                // A failed call that took long is still a slow upstream
+                concurrencyLimiter.onLlmLatency(elapsed);
+            }
+            settle(reservedTokens, outcome, usage);
+            metrics.recordLlmCall(route.getName(), route.getModel(), false, outcome, elapsed, usage);
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, route, routed, false, outcome, usage,
+                        responseBody != null ? responseBody.getBytes(StandardCharsets.UTF_8).length : 0);
+            }
+            endCallSpan(span, outcome, usage);
+        }
+    }
+
+    /**
+     * Replaces the token reservation with the upstream's count, or gives it back if the call
+     * failed without one. A successful call without usage keeps its estimate.
+     */
+    private void settle(long reservedTokens, String outcome, Usage usage) {
+        if (usage != null) {
+            rateLimiter.reconcile(reservedTokens, usage);
+        } else if (!PipelineMetrics.SUCCESS.equals(outcome)) {
+            rateLimiter.release(reservedTokens);
+        }
+    }
+
+    /**
+     * The usage of a body that did not parse as a completion, e.g. an error object; null if it has none
+     */
+    private Usage usageOf(String responseBody) {
+        try {
+            JsonNode usage = objectMapper.readTree(responseBody).get("usage");
+            return usage != null && usage.isObject() ? objectMapper.treeToValue(usage, Usage.class) : null;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
             return null;
         }
     }
 
+    /**
+     * Fills in a slow round trip's event. The request is serialized again for its size, which
+     * only happens for the few calls that are recorded.
+     */
+    private void commit(LlmRoundTripEvent event, LlmRoute route, OllamaChatRequest routed, boolean streamed,
+                        String outcome, Usage usage, long bytesIn) {
+        event.setRoute(route.getName());
+        event.setModel(route.getModel());
+        event.setStreamed(streamed);
+        event.setOutcome(outcome);
+        event.setBytesIn(bytesIn);
+        try {
+            event.setBytesOut(objectMapper.writeValueAsBytes(routed).length);
+        } catch (JsonProcessingException e) {
+            event.setBytesOut(-1);
+        }
+        if (usage != null) {
+            event.setPromptTokens(usage.getPrompt_tokens() != null ? usage.getPrompt_tokens() : 0);
+            event.setCompletionTokens(usage.getCompletion_tokens() != null ? usage.getCompletion_tokens() : 0);
+        }
+        event.setTraceId(tracer.currentTraceId());
+        event.commit();
+    }
+
+    private Span startCallSpan(LlmRoute route, boolean streamed) {
+        return tracer.startSpan("llm.call")
+                .setAttribute("route", route.getName())
+                .setAttribute("model", route.getModel())
+                .setAttribute("stream", streamed);
+    }
+
+    private void endCallSpan(Span span, String outcome, Usage usage) {
+        span.setAttribute("outcome", outcome);
+        if (usage != null && usage.getTotal_tokens() != null) {
+            span.setAttribute("tokens", usage.getTotal_tokens());
+        }
+        if (!PipelineMetrics.SUCCESS.equals(outcome)) {
+            span.setError(outcome);
+        }
+        span.close();
+    }
+
+    private StreamedTurn streamLLM(OllamaChatRequest request, Consumer<String> onToken, Consumer<ToolCall> onToolCall) {
+        request.setStream(true);
+
+        // Failing over is only safe while nothing of this completion has reached the client
+        AtomicBoolean emitted = new AtomicBoolean();
+        Consumer<String> tokens = token -> {
+            emitted.set(true);
+            onToken.accept(token);
+        };
+        Consumer<ToolCall> toolCalls = toolCall -> {
+            emitted.set(true);
+            onToolCall.accept(toolCall);
+        };
+
+        try (Span span = tracer.startSpan("llm.turn")) {
+            span.setAttribute("messages", request.getMessages().size());
+            try {
+                return llmRouter.executeWithFailover(route -> streamRoute(route, request, tokens, toolCalls), () -> !emitted.get());
+            } catch (Exception e) {
+                log.error("Error streaming from LLM API", e);
+                span.setError(e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    private StreamedTurn streamRoute(LlmRoute route, OllamaChatRequest request,
+                                     Consumer<String> onToken, Consumer<ToolCall> onToolCall) {
+        OllamaChatRequest routed = request.withModel(route.getModel());
+        Span span = startCallSpan(route, true);
+        long acquireStart = System.nanoTime();
+        long reservedTokens = rateLimiter.acquire(routed);
+        span.setAttribute("rateLimitWaitMs", Duration.ofNanos(System.nanoTime() - acquireStart).toMillis());
+        if (reservedTokens < 0) {
+            endCallSpan(span, PipelineMetrics.THROTTLED, null);
+            throw new IllegalStateException("LLM rate budget exhausted, not opening a stream");
+        }
+
+        long start = System.nanoTime();
+        AtomicReference<String> outcome = new AtomicReference<>(PipelineMetrics.ERROR);
+        Usage usage = null;
+        AtomicLong bytesIn = new AtomicLong();
+        LlmRoundTripEvent event = new LlmRoundTripEvent();
+        event.begin();
+        log.info("Streaming from LLM route {} with model: {}", route.getName(), route.getModel());
+
+        try {
+            StreamedTurn turn = route.getRestClient().post()
+                    .uri("/chat/completions")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(routed)
+                    .exchange((httpRequest, response) -> {
+                        // Time to first byte - the length of the streamed answer says nothing about load
+                        long firstByte = System.nanoTime() - start;
+                        span.setAttribute("timeToFirstByteMs", Duration.ofNanos(firstByte).toMillis());
+                        if (response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                            outcome.set(PipelineMetrics.THROTTLED);
+                            rateLimiter.onThrottled(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                        } else {
+                            // As in callRoute: a fast 429 says nothing about upstream latency
+                            concurrencyLimiter.onLlmLatency(firstByte);
+                        }
+                        if (response.getStatusCode().isError()) {
+                            throw new IOException("LLM stream failed with status " + response.getStatusCode());
+                        }
+                        return readStream(new CountingInputStream(response.getBody(), bytesIn), onToken, onToolCall);
+                    });
+
+            usage = turn.usage();
+            outcome.set(PipelineMetrics.SUCCESS);
+            return turn;
+        } finally {
+            // A stream that broke off after the first bytes was generated for, so its estimate stands
+            if (usage != null || bytesIn.get() == 0) {
+                settle(reservedTokens, outcome.get(), usage);
+            }
+            metrics.recordLlmCall(route.getName(), route.getModel(), true, outcome.get(), System.nanoTime() - start, usage);
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, route, routed, true, outcome.get(), usage, bytesIn.get());
+            }
+            endCallSpan(span, outcome.get(), usage);
+        }
+    }
+
+    private StreamedTurn readStream(InputStream body, Consumer<String> onToken, Consumer<ToolCall> onToolCall) throws IOException {
+        StringBuilder content = new StringBuilder();
+        Usage usage = null;
+        StreamingToolCallAssembler assembler = new StreamingToolCallAssembler(objectMapper, onToolCall);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Skip SSE comments (": OPENROUTER PROCESSING") and event separators
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                break;
+            }
+
+            OllamaChatChunk chunk = chunkReader.readValue(data);
+            // Usage arrives on the last chunk, usually without choices
+            if (chunk.getUsage() != null) {
+                usage = chunk.getUsage();
+            }
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+                continue;
+            }
+
+            OllamaChatChunk.Choice choice = chunk.getChoices().get(0);
+            OllamaChatChunk.Delta delta = choice.getDelta();
+            if (delta != null) {
+                if (delta.getContent() != null && !delta.getContent().isEmpty()) {
+                    content.append(delta.getContent());
+                    onToken.accept(delta.getContent());
+                }
+                if (delta.getTool_calls() != null) {
+                    assembler.accept(delta.getTool_calls());
+                }
+            }
+
+            if (choice.getFinish_reason() != null) {
+                assembler.finish();
+            }
+        }
+
+        assembler.finish();
+        return new StreamedTurn(content.toString(), assembler.getCompleted(), usage);
+    }
+
     private String extractMessageContent(OllamaChatResponse response, String rawResponse) {
         log.info("Extracting message from response");
         log.info("Response has choices: {}", response.getChoices() != null);
@@ -204,36 +882,6 @@ public class LLMService {
         return "DEBUG: No choices found. Raw response: " + rawResponse.substring(0, Math.min(300, rawResponse.length()));
     }
 
-    private List<ToolCall> extractNativeToolCalls(OllamaChatResponse response) {
-        List<ToolCall> toolCalls = new ArrayList<>();
-        
-        try {
-            if (response.getChoices() != null && !response.getChoices().isEmpty()) {
-                OllamaChatResponse.Choice.Message msg = response.getChoices().get(0).getMessage();
-                if (msg != null && msg.getTool_calls() != null && !msg.getTool_calls().isEmpty()) {
-                    log.info("Found {} native tool calls", msg.getTool_calls().size());
-                    
-                    for (OllamaChatResponse.Choice.ToolCallResponse toolCallResp : msg.getTool_calls()) {
-                        if (toolCallResp.getFunction() != null) {
-                            String name = toolCallResp.getFunction().getName();
-                            String argumentsJson = toolCallResp.getFunction().getArguments();
-                            
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> arguments = objectMapper.readValue(argumentsJson, Map.class);
-                            
-                            toolCalls.add(new ToolCall(toolCallResp.getId(), name, arguments));
-                            log.info("Extracted native tool call: {} with args: {}", name, arguments);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Failed to extract native tool calls", e);
-        }
-        
-        return toolCalls;
-    }
-    
     private List<ToolCall> extractToolCalls(String response) {
         List<ToolCall> toolCalls = new ArrayList<>();
         
@@ -264,5 +912,55 @@ public class LLMService {
         
         return toolCalls;
     }
-}
 
+    /**
+     * Passes events through while keeping the final step's text for the cache
+     */
+    private static class CollectingListener implements AnswerStreamListener {
+
+        private final AnswerStreamListener delegate;
+        private final StringBuilder text = new StringBuilder();
+        private boolean completed;
+
+        CollectingListener(AnswerStreamListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onToken(String token) {
+            text.append(token);
+            delegate.onToken(token);
+        }
+
+        @Override
+        public void onToolCall(ToolCall toolCall) {
+            delegate.onToolCall(toolCall);
+        }
+
+        @Override
+        public void onToolResult(ToolCall toolCall, ToolResult result) {
+            // Text streamed before a tool round belongs to an intermediate step, not to the answer
+            text.setLength(0);
+            delegate.onToolResult(toolCall, result);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            delegate.onComplete();
+        }
+
+        @Override
+        public void onError(String message) {
+            delegate.onError(message);
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+
+        String getText() {
+            return text.toString();
+        }
+    }
+}
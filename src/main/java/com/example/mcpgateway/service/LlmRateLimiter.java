@@ -0,0 +1,262 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatRequest;
+import com.example.mcpgateway.dto.Usage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side quota for the LLM upstream: two token buckets, one for requests per minute and one
+ * for (estimated) tokens per minute. A call waits up to max-wait for both budgets instead of
+ * spending a round trip on a 429. Estimates are corrected with the reported usage afterwards,
+ * and an upstream 429 pauses all callers for its Retry-After.
+ */
+@Service
+public class LlmRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmRateLimiter.class);
+
+    // Rough size of one tool definition in the prompt
+    private static final int TOKENS_PER_TOOL = 150;
+
+    // Common rule of thumb for English text with BPE tokenizers
+    private static final int CHARS_PER_TOKEN = 4;
+
+    @Value("${llm.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.rate-limit.requests-per-minute:60}")
+    private int requestsPerMinute;
+
+    @Value("${llm.rate-limit.tokens-per-minute:100000}")
+    private int tokensPerMinute;
+
+    @Value("${llm.rate-limit.completion-tokens-estimate:500}")
+    private int completionTokensEstimate;
+
+    @Value("${llm.rate-limit.max-wait:10s}")
+    private Duration maxWait;
+
+    // Pause after a 429 without a usable Retry-After header
+    @Value("${llm.rate-limit.default-backoff:5s}")
+    private Duration defaultBackoff;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition refilled = lock.newCondition();
+
+    private boolean initialized;
+    private double requestBudget;
+    private double tokenBudget;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong waitedNanos = new AtomicLong();
+
+    /**
+     * Reserves one request and the estimated tokens for the given call, waiting up to max-wait.
+     *
+     * @return the reserved token count to pass to {@link #reconcile}, or -1 if no budget became available in time
+     */
+    public long acquire(OllamaChatRequest request) {
+        long cost = estimateTokens(request);
+        if (!enabled) {
+            return cost;
+        }
+
+        // A single oversized prompt must still be able to go through once the bucket is full
+        cost = Math.min(cost, tokensPerMinute);
+
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        boolean counted = false;
+
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+
+                long waitNanos;
+                if (blockedUntilNanos - now > 0) {
+                    waitNanos = blockedUntilNanos - now;
+                } else {
+                    waitNanos = Math.max(
+                            nanosUntil(1 - requestBudget, requestsPerMinute),
+                            nanosUntil(cost - tokenBudget, tokensPerMinute));
+                }
+
+                if (waitNanos <= 0) {
+                    requestBudget -= 1;
+                    tokenBudget -= cost;
+                    granted.incrementAndGet();
+                    waitedNanos.addAndGet(now - start);
+                    return cost;
+                }
+
+                if (now + waitNanos - deadline > 0) {
+                    rejected.incrementAndGet();
+                    log.warn("LLM rate budget exhausted: need {} ms more than the {} ms allowed wait",
+                            TimeUnit.NANOSECONDS.toMillis(now + waitNanos - deadline), maxWait.toMillis());
+                    return -1;
+                }
+
+                if (!counted) {
+                    queued.incrementAndGet();
+                    counted = true;
+                }
+                refilled.awaitNanos(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the estimate with the tokens the upstream actually counted
+     */
+    public void reconcile(long reservedTokens, Usage usage) {
+        if (!enabled || reservedTokens < 0 || usage == null || usage.getTotal_tokens() == null) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            tokenBudget = Math.min(tokensPerMinute, tokenBudget + reservedTokens - usage.getTotal_tokens());
+            refilled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the reserved tokens of a call that produced no completion (connection error, error
+     * status, an error object instead of a completion); the request itself stays counted
+     */
+    public void release(long reservedTokens) {
+        if (!enabled || reservedTokens <= 0) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            tokenBudget = Math.min(tokensPerMinute, tokenBudget + reservedTokens);
+            refilled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Upstream answered 429 - hold every caller until it says we may retry
+     *
+     * @param retryAfter the Retry-After header in seconds, may be null
+     */
+    public void onThrottled(String retryAfter) {
+        Duration pause = parseRetryAfter(retryAfter);
+        throttled.incrementAndGet();
+        log.warn("LLM upstream throttled us, pausing calls for {} ms", pause.toMillis());
+
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            long until = System.nanoTime() + pause.toNanos();
+            if (until - blockedUntilNanos > 0) {
+                blockedUntilNanos = until;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            stats.put("requestsRemaining", (long) Math.floor(requestBudget));
+            stats.put("tokensRemaining", (long) Math.floor(tokenBudget));
+            stats.put("pausedForMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(blockedUntilNanos - now)));
+        } finally {
+            lock.unlock();
+        }
+        stats.put("requestsPerMinute", requestsPerMinute);
+        stats.put("tokensPerMinute", tokensPerMinute);
+        stats.put("granted", granted.get());
+        stats.put("queued", queued.get());
+        stats.put("rejected", rejected.get());
+        stats.put("throttledByUpstream", throttled.get());
+        stats.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(waitedNanos.get()));
+        return stats;
+    }
+
+    /**
+     * Prompt characters / 4, plus tool definitions, plus an allowance for the completion
+     */
+    long estimateTokens(OllamaChatRequest request) {
+        long chars = 0;
+        if (request.getMessages() != null) {
+            for (OllamaChatRequest.ChatMessage message : request.getMessages()) {
+                if (message.getContent() != null) {
+                    chars += message.getContent().length();
+                }
+            }
+        }
+        int tools = request.getTools() == null ? 0 : request.getTools().size();
+        return chars / CHARS_PER_TOKEN + (long) tools * TOKENS_PER_TOOL + completionTokensEstimate;
+    }
+
+    private void refill(long now) {
+        if (!initialized) {
+            requestBudget = requestsPerMinute;
+            tokenBudget = tokensPerMinute;
+            lastRefillNanos = now;
+            initialized = true;
+            return;
+        }
+
+        double minutes = (now - lastRefillNanos) / 60_000_000_000.0;
+        requestBudget = Math.min(requestsPerMinute, requestBudget + minutes * requestsPerMinute);
+        tokenBudget = Math.min(tokensPerMinute, tokenBudget + minutes * tokensPerMinute);
+        lastRefillNanos = now;
+    }
+
+    private static long nanosUntil(double missing, int perMinute) {
+        if (missing <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(missing / perMinute * 60_000_000_000.0);
+    }
+
+    private Duration parseRetryAfter(String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                return Duration.ofSeconds(Math.max(1, Long.parseLong(retryAfter.trim())));
+            } catch (NumberFormatException e) {
+                log.debug("Unsupported Retry-After value '{}', using default back-off", retryAfter);
+            }
+        }
+        return defaultBackoff;
+    }
+}
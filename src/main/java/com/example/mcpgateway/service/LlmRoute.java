@@ -0,0 +1,129 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.config.UpstreamHttpClient;
+import org.springframework.web.client.RestClient;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One LLM endpoint + model combination, with the recent latency and health the router decides on
+ */
+public class LlmRoute {
+
+    private static final int LATENCY_SAMPLES = 128;
+
+    private final String name;
+    private final String model;
+    private final int weight;
+    private final RestClient restClient;
+    private final UpstreamHttpClient upstream;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyNext;
+    private int latencyCount;
+    private volatile long unhealthyUntilNanos;
+    private volatile boolean unhealthy;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public LlmRoute(String name, String model, int weight, RestClient restClient, UpstreamHttpClient upstream) {
+        this.name = name;
+        this.model = model;
+        this.weight = Math.max(1, weight);
+        this.restClient = restClient;
+        this.upstream = upstream;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public RestClient getRestClient() {
+        return restClient;
+    }
+
+    boolean isHealthy() {
+        return !unhealthy || System.nanoTime() - unhealthyUntilNanos >= 0;
+    }
+
+    void onStart() {
+        calls.incrementAndGet();
+    }
+
+    void onSuccess(long latencyNanos) {
+        unhealthy = false;
+        lock.lock();
+        try {
+            latencies[latencyNext] = latencyNanos;
+            latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure(long cooldownNanos) {
+        failures.incrementAndGet();
+        unhealthyUntilNanos = System.nanoTime() + cooldownNanos;
+        unhealthy = true;
+    }
+
+    void onHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    /**
+     * Latency percentile over the recent samples, or -1 with fewer than minSamples
+     */
+    long latencyPercentile(double percentile, int minSamples) {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (latencyCount < minSamples || latencyCount == 0) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("model", model);
+        stats.put("weight", weight);
+        stats.put("healthy", isHealthy());
+        stats.put("calls", calls.get());
+        stats.put("failures", failures.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("p50Ms", millis(latencyPercentile(0.5, 1)));
+        stats.put("p95Ms", millis(latencyPercentile(0.95, 1)));
+        if (upstream != null) {
+            stats.put("connectionPool", upstream.getStats());
+        }
+        return stats;
+    }
+
+    private static long millis(long nanos) {
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
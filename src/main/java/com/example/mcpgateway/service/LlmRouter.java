@@ -0,0 +1,236 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.config.LlmRoutingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spreads LLM calls over the configured routes by weight. A failed attempt fails over to the next
+ * route (failed routes are tried last for a cool-down). With hedging enabled, an attempt that is
+ * slower than its route's usual latency percentile gets a second attempt on another route;
+ * the first answer wins and the other attempt is cancelled.
+ */
+public class LlmRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmRouter.class);
+
+    // Latency samples a route needs before its percentile is trusted as hedge delay
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    /**
+     * One attempt of a call against a route. Throwing marks the attempt as failed.
+     */
+    @FunctionalInterface
+    public interface RouteCall<T> {
+        T call(LlmRoute route) throws Exception;
+    }
+
+    private final List<LlmRoute> routes;
+    private final LlmRoutingProperties properties;
+    private final ExecutorService executor;
+
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public LlmRouter(List<LlmRoute> routes, LlmRoutingProperties properties, ExecutorService executor) {
+        if (routes.isEmpty()) {
+            throw new IllegalArgumentException("At least one LLM route is required");
+        }
+        this.routes = List.copyOf(routes);
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * Blocking call with failover and, if enabled, hedging
+     */
+    public <T> T execute(RouteCall<T> call) throws Exception {
+        List<LlmRoute> candidates = candidates();
+        if (!properties.getHedge().isEnabled() || candidates.size() < 2) {
+            return executeWithFailover(call, candidates, () -> true);
+        }
+
+        AtomicBoolean finished = new AtomicBoolean();
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>();
+        Map<Future<T>, LlmRoute> routeOf = new LinkedHashMap<>();
+
+        int next = 0;
+        int running = 0;
+        boolean hedged = false;
+        Exception lastError = null;
+
+        LlmRoute primary = candidates.get(next++);
+        Future<T> first = completion.submit(() -> attempt(primary, call, finished));
+        attempts.add(first);
+        routeOf.put(first, primary);
+        running++;
+
+        try {
+            while (running > 0) {
+                Future<T> done;
+                if (!hedged && next < candidates.size()) {
+                    done = completion.poll(hedgeDelayNanos(primary), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        hedged = true;
+                        hedges.incrementAndGet();
+                        LlmRoute hedge = candidates.get(next++);
+                        log.info("LLM route {} is slow, hedging on route {}", primary.getName(), hedge.getName());
+                        Future<T> attempt = completion.submit(() -> attempt(hedge, call, finished));
+                        attempts.add(attempt);
+                        routeOf.put(attempt, hedge);
+                        running++;
+                        continue;
+                    }
+                } else {
+                    done = completion.take();
+                }
+                running--;
+
+                try {
+                    T result = done.get();
+                    finished.set(true);
+                    if (hedged) {
+                        LlmRoute winner = routeOf.get(done);
+                        winner.onHedgeWin();
+                        if (winner != primary) {
+                            hedgeWins.incrementAndGet();
+                        }
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof Exception cause ? cause : e;
+                    log.warn("LLM route {} failed: {}", routeOf.get(done).getName(), lastError.getMessage());
+                    if (running == 0 && next < candidates.size()) {
+                        failovers.incrementAndGet();
+                        LlmRoute fallback = candidates.get(next++);
+                        Future<T> attempt = completion.submit(() -> attempt(fallback, call, finished));
+                        attempts.add(attempt);
+                        routeOf.put(attempt, fallback);
+                        running++;
+                    }
+                }
+            }
+            throw lastError;
+        } finally {
+            finished.set(true);
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * Sequential failover without hedging - for streamed calls, whose output cannot be taken back.
+     *
+     * @param canRetry checked after a failure; false once part of the answer reached the client
+     */
+    public <T> T executeWithFailover(RouteCall<T> call, BooleanSupplier canRetry) throws Exception {
+        return executeWithFailover(call, candidates(), canRetry);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hedging", properties.getHedge().isEnabled());
+        stats.put("failovers", failovers.get());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeWins", hedgeWins.get());
+
+        Map<String, Object> routeStats = new LinkedHashMap<>();
+        routes.forEach(route -> routeStats.put(route.getName(), route.getStats()));
+        stats.put("routes", routeStats);
+        return stats;
+    }
+
+    private <T> T executeWithFailover(RouteCall<T> call, List<LlmRoute> candidates, BooleanSupplier canRetry) throws Exception {
+        AtomicBoolean finished = new AtomicBoolean();
+        Exception lastError = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i > 0) {
+                if (!canRetry.getAsBoolean()) {
+                    break;
+                }
+                failovers.incrementAndGet();
+                log.warn("Failing over from LLM route {} to {}", candidates.get(i - 1).getName(), candidates.get(i).getName());
+            }
+            try {
+                return attempt(candidates.get(i), call, finished);
+            } catch (Exception e) {
+                lastError = e;
+                log.warn("LLM route {} failed: {}", candidates.get(i).getName(), e.getMessage());
+            }
+        }
+        throw lastError;
+    }
+
+    private <T> T attempt(LlmRoute route, RouteCall<T> call, AtomicBoolean finished) throws Exception {
+        route.onStart();
+        long start = System.nanoTime();
+        try {
+            T result = call.call(route);
+            route.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            // A hedge loser being cancelled says nothing about the route
+            if (!finished.get()) {
+                route.onFailure(properties.getFailureCooldown().toNanos());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Up to max-attempts routes: healthy ones first, each group in weighted random order
+     */
+    private List<LlmRoute> candidates() {
+        List<LlmRoute> healthy = new ArrayList<>();
+        List<LlmRoute> unhealthy = new ArrayList<>();
+        for (LlmRoute route : routes) {
+            (route.isHealthy() ? healthy : unhealthy).add(route);
+        }
+
+        List<LlmRoute> ordered = new ArrayList<>(routes.size());
+        weightedShuffle(healthy, ordered);
+        weightedShuffle(unhealthy, ordered);
+        return ordered.subList(0, Math.min(ordered.size(), Math.max(1, properties.getMaxAttempts())));
+    }
+
+    private static void weightedShuffle(List<LlmRoute> pool, List<LlmRoute> into) {
+        List<LlmRoute> remaining = new ArrayList<>(pool);
+        while (!remaining.isEmpty()) {
+            int total = 0;
+            for (LlmRoute route : remaining) {
+                total += route.getWeight();
+            }
+            int pick = ThreadLocalRandom.current().nextInt(total);
+            for (int i = 0; i < remaining.size(); i++) {
+                pick -= remaining.get(i).getWeight();
+                if (pick < 0) {
+                    into.add(remaining.remove(i));
+                    break;
+                }
+            }
+        }
+    }
+
+    private long hedgeDelayNanos(LlmRoute route) {
+        LlmRoutingProperties.Hedge hedge = properties.getHedge();
+        long percentile = route.latencyPercentile(hedge.getPercentile(), MIN_HEDGE_SAMPLES);
+        long delay = percentile < 0 ? hedge.getInitialDelay().toNanos() : percentile;
+        return Math.max(hedge.getMinDelay().toNanos(), delay);
+    }
+}
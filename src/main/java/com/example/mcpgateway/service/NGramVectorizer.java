@@ -0,0 +1,72 @@
+package com.example.mcpgateway.service;
+
+/**
+ * Cheap offline text embedding: character trigrams and words hashed into a fixed-size,
+ * L2-normalized vector (the "hashing trick"). Cosine similarity of two vectors is their dot product.
+ */
+final class NGramVectorizer {
+
+    static final int DIMENSIONS = 512;
+
+    private NGramVectorizer() {}
+
+    static float[] vectorize(String text) {
+        float[] vector = new float[DIMENSIONS];
+        String padded = " " + text + " ";
+
+        // Character trigrams carry spelling similarity ("rate" / "rates")
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            int hash = padded.charAt(i);
+            hash = 31 * hash + padded.charAt(i + 1);
+            hash = 31 * hash + padded.charAt(i + 2);
+            add(vector, hash, 1f);
+        }
+
+        // Whole words weigh a bit more, so word order matters less than word choice
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean boundary = i == text.length() || text.charAt(i) == ' ';
+            if (boundary && start >= 0) {
+                add(vector, text.substring(start, i).hashCode() ^ 0x5bd1e995, 2f);
+                start = -1;
+            } else if (!boundary && start < 0) {
+                start = i;
+            }
+        }
+
+        float norm = 0f;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0f) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    static float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static void add(float[] vector, int hash, float weight) {
+        int mixed = mix(hash);
+        // One hash picks both the slot and the sign, which keeps collisions unbiased
+        vector[(mixed >>> 1) % DIMENSIONS] += (mixed & 1) == 0 ? weight : -weight;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.Usage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for each stage of the ask pipeline, so a slow answer can be attributed to the
+ * LLM, the tools, the payment gateway or the gateway itself. Percentile histograms are switched on
+ * per meter in application.yml (management.metrics.distribution).
+ */
+@Service
+public class PipelineMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String THROTTLED = "throttled";
+    public static final String TIMEOUT = "timeout";
+    public static final String REJECTED = "rejected";
+    public static final String CIRCUIT_OPEN = "circuit_open";
+
+    // Tool names the LLM made up must not each get their own time series
+    private static final String UNKNOWN_TOOL = "unknown";
+
+    private final Meter.MeterProvider<Timer> askTimer;
+    private final Meter.MeterProvider<Timer> llmTimer;
+    private final Meter.MeterProvider<DistributionSummary> llmTokens;
+    private final Meter.MeterProvider<Timer> toolTimer;
+    private final Meter.MeterProvider<Counter> toolFallbacks;
+    private final Meter.MeterProvider<Timer> gatewayTimer;
+    private final DistributionSummary gatewayPayload;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.askTimer = Timer.builder("gateway.ask")
+                .description("End-to-end time of a question, from arrival to the complete answer")
+                .withRegistry(registry);
+        this.llmTimer = Timer.builder("gateway.llm.calls")
+                .description("LLM round trips per route and model; streamed calls until the last chunk")
+                .withRegistry(registry);
+        this.llmTokens = DistributionSummary.builder("gateway.llm.tokens")
+                .description("Tokens per LLM call as reported in the response usage")
+                .baseUnit("tokens")
+                .withRegistry(registry);
+        this.toolTimer = Timer.builder("gateway.tool.calls")
+                .description("Tool calls per tool and outcome, including time waiting for the tool")
+                .withRegistry(registry);
+        this.toolFallbacks = Counter.builder("gateway.tool.fallbacks")
+                .description("Failed tool calls answered with the last good result")
+                .withRegistry(registry);
+        this.gatewayTimer = Timer.builder("gateway.payment.fetch")
+                .description("Payment gateway exchange-rate page fetches, including decoding")
+                .withRegistry(registry);
+        this.gatewayPayload = DistributionSummary.builder("gateway.payment.fetch.size")
+                .description("Size of the exchange-rate pages received from the payment gateway")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * @param endpoint ask or stream
+     * @param outcome  answered, failed or rejected
+     * @param source   where the answer came from, see {@link AskContext#getAnswerSource()}
+     */
+    public void recordAsk(String endpoint, String outcome, String source, long nanos) {
+        askTimer.withTags("endpoint", endpoint, "outcome", outcome, "source", source)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLlmCall(String route, String model, boolean streamed, String outcome, long nanos, Usage usage) {
+        llmTimer.withTags("route", route, "model", model, "mode", streamed ? "stream" : "blocking", "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (usage != null) {
+            if (usage.getPrompt_tokens() != null) {
+                llmTokens.withTags("model", model, "type", "prompt").record(usage.getPrompt_tokens());
+            }
+            if (usage.getCompletion_tokens() != null) {
+                llmTokens.withTags("model", model, "type", "completion").record(usage.getCompletion_tokens());
+            }
+        }
+    }
+
+    /**
+     * @param tool null for a tool that is not registered
+     */
+    public void recordToolCall(String tool, String outcome, long nanos) {
+        toolTimer.withTags("tool", tool != null ? tool : UNKNOWN_TOOL, "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordToolFallback(String tool) {
+        toolFallbacks.withTags("tool", tool).increment();
+    }
+
+    public void recordGatewayFetch(String outcome, long nanos, long bytes) {
+        gatewayTimer.withTags("outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0) {
+            gatewayPayload.record(bytes);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.mcpgateway.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes questions into cache keys: case-folded, whitespace-collapsed, trailing
+ * punctuation removed and common currency names and symbols replaced by ISO codes,
+ * so "What is the Euro → Dollar rate?" and "what is the eur to usd rate" share a key.
+ */
+public final class QuestionNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[?.!\\s]+$");
+
+    // Order matters - qualified names before the bare "dollar"
+    private static final Map<Pattern, String> CURRENCY_NAMES = new LinkedHashMap<>();
+
+    static {
+        CURRENCY_NAMES.put(Pattern.compile("\\bcanadian dollars?\\b"), "cad");
+        CURRENCY_NAMES.put(Pattern.compile("\\baustralian dollars?\\b"), "aud");
+        CURRENCY_NAMES.put(Pattern.compile("\\b(?:us|american) dollars?\\b"), "usd");
+        CURRENCY_NAMES.put(Pattern.compile("\\bdollars?\\b"), "usd");
+        CURRENCY_NAMES.put(Pattern.compile("\\beuros?\\b"), "eur");
+        CURRENCY_NAMES.put(Pattern.compile("\\b(?:british )?pounds?(?: sterling)?\\b"), "gbp");
+        CURRENCY_NAMES.put(Pattern.compile("\\bswiss francs?\\b"), "chf");
+        CURRENCY_NAMES.put(Pattern.compile("\\byen\\b"), "jpy");
+        CURRENCY_NAMES.put(Pattern.compile("\\bforints?\\b"), "huf");
+        CURRENCY_NAMES.put(Pattern.compile("\\$"), " usd ");
+        CURRENCY_NAMES.put(Pattern.compile("€"), " eur ");
+        CURRENCY_NAMES.put(Pattern.compile("£"), " gbp ");
+        CURRENCY_NAMES.put(Pattern.compile("¥"), " jpy ");
+        CURRENCY_NAMES.put(Pattern.compile("\\s*(?:→|->)\\s*"), " to ");
+    }
+
+    private QuestionNormalizer() {}
+
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+
+        String normalized = WHITESPACE.matcher(question.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        for (Map.Entry<Pattern, String> entry : CURRENCY_NAMES.entrySet()) {
+            normalized = entry.getKey().matcher(normalized).replaceAll(entry.getValue());
+        }
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return TRAILING_PUNCTUATION.matcher(normalized).replaceAll("");
+    }
+}
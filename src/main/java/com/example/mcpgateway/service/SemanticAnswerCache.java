@@ -0,0 +1,363 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.mcp.ToolRegistryChangedEvent;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Paraphrase-tolerant answer cache behind the exact {@link AnswerCache}.
+ * Question frames and filler ("what is the", "how much is a", "rate") are stripped and what is left
+ * is embedded offline with {@link NGramVectorizer}, then indexed with random-hyperplane LSH (several
+ * tables of sign bits), so a lookup only scores the few entries sharing a bucket.
+ * A cached answer is reused when cosine similarity reaches the threshold AND the currency codes,
+ * numbers and direction/negation words of both questions are identical - "EUR to USD" must never
+ * answer "USD to EUR", nor "rates from EUR" answer "rates to EUR".
+ * As in {@link AnswerCache}, an answer whose tools were invalidated while it was computed is not stored.
+ */
+@Service
+public class SemanticAnswerCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    private static final int TABLES = 8;
+    private static final int BITS_PER_TABLE = 8;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^a-z0-9.]+");
+
+    // Words that flip the answer while barely moving the vector; synonyms share a guard token
+    private static final Map<String, String> GUARD_WORDS = Map.of(
+            "from", "from",
+            "to", "to",
+            "into", "to",
+            "in", "to",
+            "not", "not",
+            "no", "not");
+
+    // "from EUR to USD" asks the same as "EUR to USD"; only a lone "from" is a direction
+    private static final Pattern REDUNDANT_FROM = Pattern.compile("\\bfrom ([a-z]{3}) to ");
+
+    // Question frames and filler that do not change what is asked. Every question here is about
+    // rates, so "rate" is implied, and a single unit ("a", "one", "1") is what a rate is quoted for.
+    // Direction words are left to the guard.
+    private static final Set<String> STOPWORDS = Set.of(
+            "what", "whats", "which", "s", "is", "are", "was", "the", "a", "an", "one", "1", "of", "for", "at",
+            "all", "how", "much", "many", "me", "please", "can", "could", "would", "you", "tell", "show",
+            "list", "give", "get", "i", "do", "does", "have", "use", "know", "like", "want", "there", "current",
+            "currently", "today", "now", "available", "rate", "rates", "exchange", "conversion", "convert",
+            "worth", "from", "to", "into", "in");
+
+    private static final class Entry {
+        private final float[] vector;
+        private final String guard;
+        private final String answer;
+        private final Set<String> dependsOn;
+        private final long expiresAtNanos;
+        private final int[] buckets;
+
+        private Entry(float[] vector, String guard, String answer, Set<String> dependsOn, long expiresAtNanos, int[] buckets) {
+            this.vector = vector;
+            this.guard = guard;
+            this.answer = answer;
+            this.dependsOn = dependsOn;
+            this.expiresAtNanos = expiresAtNanos;
+            this.buckets = buckets;
+        }
+    }
+
+    @Value("${llm.semantic-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.semantic-cache.similarity-threshold:0.9}")
+    private double similarityThreshold;
+
+    @Value("${llm.semantic-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${llm.semantic-cache.ttl:10m}")
+    private Duration ttl;
+
+    private final ExchangeRateSnapshotService snapshotService;
+
+    // Fixed seed - bucket assignment must be stable for the life of the index
+    private final float[][] hyperplanes = new float[TABLES * BITS_PER_TABLE][NGramVectorizer.DIMENSIONS];
+
+    // Access-ordered for LRU eviction
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Map<Integer, List<Long>>> tables = new ArrayList<>(TABLES);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextId;
+
+    // Bumped by every invalidation; per tool, the generation its answers were last invalidated at
+    private volatile long generation;
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleDrops = new AtomicLong();
+
+    public SemanticAnswerCache(ExchangeRateSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+
+        Random random = new Random(42);
+        for (float[] hyperplane : hyperplanes) {
+            for (int i = 0; i < hyperplane.length; i++) {
+                hyperplane[i] = (float) random.nextGaussian();
+            }
+        }
+        for (int t = 0; t < TABLES; t++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Cached answer for a sufficiently similar question, or null
+     *
+     * @param normalizedQuestion output of {@link QuestionNormalizer#normalize(String)}
+     */
+    public String get(String normalizedQuestion) {
+        if (!enabled) {
+            return null;
+        }
+
+        float[] vector = NGramVectorizer.vectorize(content(normalizedQuestion));
+        String guard = guard(normalizedQuestion);
+        int[] buckets = buckets(vector);
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            Long bestId = null;
+            float bestSimilarity = (float) similarityThreshold;
+
+            for (int t = 0; t < TABLES; t++) {
+                List<Long> bucket = tables.get(t).get(buckets[t]);
+                if (bucket == null) {
+                    continue;
+                }
+                for (Long id : bucket) {
+                    Entry entry = entries.get(id);
+                    if (entry == null || entry.expiresAtNanos - now <= 0 || !entry.guard.equals(guard)) {
+                        continue;
+                    }
+                    float similarity = NGramVectorizer.dot(vector, entry.vector);
+                    if (similarity >= bestSimilarity) {
+                        bestSimilarity = similarity;
+                        bestId = id;
+                    }
+                }
+            }
+
+            if (bestId != null) {
+                hits.incrementAndGet();
+                log.info("Semantic cache hit (similarity {}) for: {}", bestSimilarity, normalizedQuestion);
+                return entries.get(bestId).answer;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Take before computing an answer that may be cached
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache the answer unless a tool it depends on was invalidated after the given generation
+     */
+    public void put(String normalizedQuestion, String answer, Set<String> dependsOn, long generation) {
+        if (!enabled || answer == null || answer.isBlank()) {
+            return;
+        }
+
+        float[] vector = NGramVectorizer.vectorize(content(normalizedQuestion));
+        int[] buckets = buckets(vector);
+        Entry entry = new Entry(vector, guard(normalizedQuestion), answer, Set.copyOf(dependsOn),
+                System.nanoTime() + ttl.toNanos(), buckets);
+
+        lock.lock();
+        try {
+            for (String toolName : dependsOn) {
+                if (invalidatedAt.getOrDefault(toolName, Long.MIN_VALUE) > generation) {
+                    staleDrops.incrementAndGet();
+                    return;
+                }
+            }
+            long id = nextId++;
+            entries.put(id, entry);
+            for (int t = 0; t < TABLES; t++) {
+                tables.get(t).computeIfAbsent(buckets[t], b -> new ArrayList<>()).add(id);
+            }
+
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                Map.Entry<Long, Entry> evicted = eldest.next();
+                eldest.remove();
+                unindex(evicted.getKey(), evicted.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int invalidateDependingOn(String toolName) {
+        int removed = 0;
+        lock.lock();
+        try {
+            invalidatedAt.put(toolName, ++generation);
+            Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Entry> entry = iterator.next();
+                if (entry.getValue().dependsOn.contains(toolName)) {
+                    iterator.remove();
+                    unindex(entry.getKey(), entry.getValue());
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return removed;
+    }
+
+    @EventListener
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent event) {
+        int removed = invalidateDependingOn(GetExchangeRatesTool.NAME);
+        log.info("Exchange rates changed, evicted {} semantically cached answer(s)", removed);
+    }
+
+    @EventListener
+    public void onToolRegistryChanged(ToolRegistryChangedEvent event) {
+        int removed = invalidateDependingOn(event.toolName());
+        log.info("Tool {} changed, evicted {} semantically cached answer(s)", event.toolName(), removed);
+    }
+
+    long hitCount() {
+        return hits.get();
+    }
+
+    long missCount() {
+        return misses.get();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("staleDrops", staleDrops.get());
+        stats.put("similarityThreshold", similarityThreshold);
+        return stats;
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unindex(Long id, Entry entry) {
+        for (int t = 0; t < TABLES; t++) {
+            List<Long> bucket = tables.get(t).get(entry.buckets[t]);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    tables.get(t).remove(entry.buckets[t]);
+                }
+            }
+        }
+    }
+
+    /**
+     * One LSH bucket per table: the sign pattern of the vector against that table's hyperplanes
+     */
+    private int[] buckets(float[] vector) {
+        int[] buckets = new int[TABLES];
+        for (int t = 0; t < TABLES; t++) {
+            int bucket = 0;
+            for (int b = 0; b < BITS_PER_TABLE; b++) {
+                if (NGramVectorizer.dot(vector, hyperplanes[t * BITS_PER_TABLE + b]) >= 0f) {
+                    bucket |= 1 << b;
+                }
+            }
+            buckets[t] = bucket;
+        }
+        return buckets;
+    }
+
+    /**
+     * The words that say what is asked, without the question frame - what the vector is built from
+     */
+    static String content(String normalizedQuestion) {
+        StringBuilder content = new StringBuilder();
+        for (String token : TOKEN_SEPARATOR.split(normalizedQuestion)) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                if (!content.isEmpty()) {
+                    content.append(' ');
+                }
+                // Plural and singular share a whole-word feature ("payment method" / "methods")
+                boolean plural = token.length() > 3 && token.endsWith("s") && !token.endsWith("ss");
+                content.append(token, 0, plural ? token.length() - 1 : token.length());
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Currency codes, numbers and direction/negation words in order of appearance - similar questions
+     * only share an answer if these are identical. A single unit ("1 EUR") is the rate itself and not
+     * an amount. Without a rate snapshot every three-letter word counts as a code.
+     */
+    private String guard(String normalizedQuestion) {
+        ExchangeRateIndex index = null;
+        try {
+            index = snapshotService.getSnapshot().index();
+        } catch (Exception e) {
+            log.debug("No exchange rate snapshot for semantic cache guard: {}", e.getMessage());
+        }
+
+        StringBuilder guard = new StringBuilder();
+        for (String token : TOKEN_SEPARATOR.split(normalizedQuestion)) {
+            boolean number = !token.isEmpty() && !token.equals("1") && token.chars().anyMatch(Character::isDigit);
+            boolean currency = token.length() == 3 && token.chars().allMatch(Character::isLetter)
+                    && (index == null || index.hasCurrency(token));
+            String word = GUARD_WORDS.get(token);
+            if (number || currency) {
+                guard.append(token).append(' ');
+            } else if (word != null) {
+                guard.append(word).append(' ');
+            }
+        }
+        return REDUNDANT_FROM.matcher(guard).replaceAll("$1 to ");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mcpgateway.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent executions with the same key into one: the first caller runs the work,
+ * callers arriving while it is in flight share its outcome. Nothing is kept afterwards -
+ * this is deduplication of simultaneous work, not a cache.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Runs the work on the calling thread, or waits for the identical execution already in flight
+     */
+    V execute(K key, Supplier<V> work) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return existing.join();
+        }
+
+        executions.incrementAndGet();
+        try {
+            V value = work.get();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous variant: starts the work unless an identical execution is in flight
+     */
+    CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> work) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return existing;
+        }
+
+        executions.incrementAndGet();
+        CompletableFuture<V> started;
+        try {
+            started = work.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+
+        // Unregister before completing, so a caller arriving afterwards starts fresh work
+        started.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    Map<String, Object> getStats() {
+        long executionCount = executions.get();
+        long sharedCount = shared.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", executionCount);
+        stats.put("shared", sharedCount);
+        stats.put("inFlight", inFlight.size());
+        // Share of callers that did not have to do their own work
+        stats.put("collapseRatio", executionCount + sharedCount == 0 ? 0.0 : (double) sharedCount / (executionCount + sharedCount));
+        return stats;
+    }
+}
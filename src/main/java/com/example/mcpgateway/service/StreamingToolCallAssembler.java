@@ -0,0 +1,105 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatChunk;
+import com.example.mcpgateway.dto.ToolCall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reassembles streamed tool-call deltas into complete {@link ToolCall}s.
+ * A call is complete as soon as the model moves on to the next tool-call index,
+ * or when the stream finishes, so dispatch can start before the stream ends.
+ */
+class StreamingToolCallAssembler {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingToolCallAssembler.class);
+
+    private static class PendingCall {
+        private String id;
+        private String name;
+        private final StringBuilder arguments = new StringBuilder();
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<ToolCall> onComplete;
+    private final TreeMap<Integer, PendingCall> pending = new TreeMap<>();
+    private final List<ToolCall> completed = new ArrayList<>();
+
+    StreamingToolCallAssembler(ObjectMapper objectMapper, Consumer<ToolCall> onComplete) {
+        this.objectMapper = objectMapper;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Apply the tool-call deltas of one chunk
+     */
+    void accept(List<OllamaChatChunk.ToolCallDelta> deltas) {
+        for (OllamaChatChunk.ToolCallDelta delta : deltas) {
+            int index = delta.getIndex() != null ? delta.getIndex() : 0;
+
+            // Deltas arrive in index order - everything below the current index is finished
+            while (!pending.isEmpty() && pending.firstKey() < index) {
+                complete(pending.pollFirstEntry().getValue());
+            }
+
+            PendingCall call = pending.computeIfAbsent(index, i -> new PendingCall());
+            if (delta.getId() != null) {
+                call.id = delta.getId();
+            }
+            if (delta.getFunction() != null) {
+                if (delta.getFunction().getName() != null) {
+                    call.name = delta.getFunction().getName();
+                }
+                if (delta.getFunction().getArguments() != null) {
+                    call.arguments.append(delta.getFunction().getArguments());
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush all remaining calls - invoked on finish_reason or end of stream
+     */
+    void finish() {
+        while (!pending.isEmpty()) {
+            complete(pending.pollFirstEntry().getValue());
+        }
+    }
+
+    List<ToolCall> getCompleted() {
+        return completed;
+    }
+
+    private void complete(PendingCall call) {
+        if (call.name == null) {
+            log.warn("Dropping streamed tool call without a function name");
+            return;
+        }
+
+        Map<String, Object> arguments = Map.of();
+        String argumentsJson = call.arguments.toString().trim();
+        if (!argumentsJson.isEmpty()) {
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> parsed = objectMapper.readValue(argumentsJson, Map.class);
+                arguments = parsed;
+            } catch (Exception e) {
+                log.warn("Failed to parse streamed arguments for tool {}: {}", call.name, argumentsJson, e);
+            }
+        }
+
+        String id = call.id != null ? call.id : "call_" + UUID.randomUUID().toString().substring(0, 8);
+        ToolCall toolCall = new ToolCall(id, call.name, arguments);
+        completed.add(toolCall);
+        log.info("Streamed tool call complete: {} with args: {}", call.name, arguments);
+        onComplete.accept(toolCall);
+    }
+}
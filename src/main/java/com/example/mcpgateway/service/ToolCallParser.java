@@ -0,0 +1,58 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatResponse;
+import com.example.mcpgateway.dto.ToolCall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the native (OpenAI style) tool calls of a chat completion into {@link ToolCall}s
+ */
+final class ToolCallParser {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolCallParser.class);
+
+    private final ObjectReader argumentsReader;
+
+    ToolCallParser(ObjectMapper objectMapper) {
+        this.argumentsReader = objectMapper.readerFor(Map.class);
+    }
+
+    /**
+     * Tool calls of the first choice; empty if there are none or they cannot be read
+     */
+    List<ToolCall> parse(OllamaChatResponse response) {
+        List<ToolCall> toolCalls = new ArrayList<>();
+
+        try {
+            if (response.getChoices() != null && !response.getChoices().isEmpty()) {
+                OllamaChatResponse.Choice.Message msg = response.getChoices().get(0).getMessage();
+                if (msg != null && msg.getTool_calls() != null && !msg.getTool_calls().isEmpty()) {
+                    log.info("Found {} native tool calls", msg.getTool_calls().size());
+
+                    for (OllamaChatResponse.Choice.ToolCallResponse toolCallResp : msg.getTool_calls()) {
+                        if (toolCallResp.getFunction() != null) {
+                            String name = toolCallResp.getFunction().getName();
+                            String argumentsJson = toolCallResp.getFunction().getArguments();
+
+                            Map<String, Object> arguments = argumentsReader.readValue(argumentsJson);
+
+                            toolCalls.add(new ToolCall(toolCallResp.getId(), name, arguments));
+                            log.info("Extracted native tool call: {} with args: {}", name, arguments);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to extract native tool calls", e);
+        }
+
+        return toolCalls;
+    }
+}
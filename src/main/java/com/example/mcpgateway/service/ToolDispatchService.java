@@ -2,27 +2,96 @@ package com.example.mcpgateway.service;
 
 import com.example.mcpgateway.dto.ToolCall;
 import com.example.mcpgateway.dto.ToolResult;
+import com.example.mcpgateway.jfr.ToolExecutionEvent;
 import com.example.mcpgateway.mcp.MCPServerConfig;
 import com.example.mcpgateway.mcp.MCPTool;
+import com.example.mcpgateway.mcp.ToolRegistryChangedEvent;
+import com.example.mcpgateway.trace.Span;
+import com.example.mcpgateway.trace.Tracer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Service responsible for routing tool calls to appropriate microservices
+ * Service responsible for routing tool calls to appropriate microservices.
+ * Every tool runs behind its own {@link ToolGuard}: a concurrency limit, the call deadline and a
+ * circuit breaker that fails fast (or serves the last good result) while the tool keeps failing.
  */
 @Service
 public class ToolDispatchService {
 
     private static final Logger log = LoggerFactory.getLogger(ToolDispatchService.class);
 
+    private static final DateTimeFormatter FALLBACK_TIME = DateTimeFormatter.ofPattern("HH:mm:ss 'UTC'").withZone(ZoneOffset.UTC);
+
+    @Value("${mcp.tools.timeout:30s}")
+    private Duration toolTimeout;
+
+    @Value("${mcp.tools.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${mcp.tools.circuit-breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${mcp.tools.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${mcp.tools.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${mcp.tools.circuit-breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${mcp.tools.fallback-entries:100}")
+    private int fallbackEntries;
+
+    @Value("${mcp.tools.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    private ToolGuard.Settings guardSettings;
+    private final Map<String, ToolGuard> guards = new ConcurrentHashMap<>();
+    // Keyed on tool name + sorted arguments
+    private final SingleFlight<String, ToolResult> toolFlight = new SingleFlight<>();
+
     private final MCPServerConfig mcpServerConfig;
+    private final ExecutorService toolExecutor;
+    private final PipelineMetrics metrics;
+    private final Tracer tracer;
 
-    public ToolDispatchService(MCPServerConfig mcpServerConfig) {
+    public ToolDispatchService(
+            MCPServerConfig mcpServerConfig,
+            @Qualifier("askExecutor") ExecutorService toolExecutor,
+            PipelineMetrics metrics,
+            Tracer tracer) {
         this.mcpServerConfig = mcpServerConfig;
+        this.toolExecutor = toolExecutor;
+        this.metrics = metrics;
+        this.tracer = tracer;
+    }
+
+    @PostConstruct
+    void initGuardSettings() {
+        guardSettings = new ToolGuard.Settings(maxConcurrent, breakerWindow, breakerMinimumCalls,
+                breakerFailureRateThreshold, breakerOpenDuration, fallbackEntries);
     }
 
     /**
@@ -30,39 +99,253 @@ public class ToolDispatchService {
      */
     public ToolResult dispatch(ToolCall toolCall) {
         log.info("Dispatching tool call: {} with id: {}", toolCall.getName(), toolCall.getId());
-        
+
+        ToolExecutionEvent event = new ToolExecutionEvent();
+        event.begin();
+        ToolResult result = null;
+        try (Span span = tracer.startSpan("tool.dispatch")) {
+            span.setAttribute("tool", toolCall.getName()).setAttribute("callId", toolCall.getId());
+            result = execute(toolCall, span);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, toolCall, result);
+            }
+        }
+    }
+
+    private ToolResult execute(ToolCall toolCall, Span span) {
         try {
             MCPTool tool = mcpServerConfig.getTool(toolCall.getName());
             
             if (tool == null) {
                 String error = "Tool not found: " + toolCall.getName();
                 log.error(error);
+                span.setError(error);
                 return ToolResult.error(toolCall.getId(), error);
             }
             
             String result = tool.execute(toolCall.getArguments());
             log.info("Tool {} executed successfully", toolCall.getName());
+            if (result != null && result.startsWith("Error")) {
+                span.setError(result);
+            }
             
             return ToolResult.success(toolCall.getId(), result);
             
         } catch (Exception e) {
             log.error("Error dispatching tool call", e);
+            span.setError(e.getMessage());
             return ToolResult.error(toolCall.getId(), "Error executing tool: " + e.getMessage());
         }
     }
 
     /**
-     * Dispatch multiple tool calls
+     * Fills in a slow call's event - sizes are only measured for events that are recorded
+     */
+    private void commit(ToolExecutionEvent event, ToolCall toolCall, ToolResult result) {
+        String argumentsKey = ToolGuard.argumentsKey(toolCall.getArguments());
+        String output = result == null ? null : result.isSuccess() ? result.getResult() : result.getError();
+        event.setToolName(toolCall.getName());
+        event.setArgumentsHash(argumentsKey.hashCode());
+        event.setBytesIn(argumentsKey.getBytes(StandardCharsets.UTF_8).length);
+        event.setBytesOut(output != null ? output.getBytes(StandardCharsets.UTF_8).length : 0);
+        event.setSuccess(result != null && !isFailure(result));
+        event.setTraceId(tracer.currentTraceId());
+        event.commit();
+    }
+
+    /**
+     * Dispatch a single tool call on its own virtual thread, guarded by the tool's bulkhead and circuit breaker.
+     * The future always completes with a result - a timed out call yields an error result (or the last good
+     * result for the same arguments) and is interrupted. The bulkhead slot is held until the call really ends.
+     * Identical calls (same tool and arguments) that are already in flight share that call's result.
+     */
+    public CompletableFuture<ToolResult> dispatchAsync(ToolCall toolCall) {
+        if (!coalescingEnabled) {
+            return guardedDispatch(toolCall);
+        }
+
+        String key = toolCall.getName() + ToolGuard.argumentsKey(toolCall.getArguments());
+        return toolFlight.executeAsync(key, () -> guardedDispatch(toolCall))
+                .thenApply(result -> forCall(result, toolCall));
+    }
+
+    private CompletableFuture<ToolResult> guardedDispatch(ToolCall toolCall) {
+        long start = System.nanoTime();
+        ToolGuard guard = guardFor(toolCall.getName());
+        if (guard == null) {
+            ToolResult result = dispatch(toolCall);
+            metrics.recordToolCall(null, PipelineMetrics.ERROR, System.nanoTime() - start);
+            return CompletableFuture.completedFuture(result);
+        }
+
+        String argumentsKey = ToolGuard.argumentsKey(toolCall.getArguments());
+        if (!guard.tryEnterBulkhead()) {
+            log.warn("Tool {} is at its concurrency limit of {}", toolCall.getName(), maxConcurrent);
+            return CompletableFuture.completedFuture(recorded(toolCall, PipelineMetrics.REJECTED, start,
+                    fallbackOrError(guard, toolCall, argumentsKey, "Tool " + toolCall.getName() + " is at its concurrency limit")));
+        }
+        if (!guard.allowRequest()) {
+            guard.leaveBulkhead();
+            return CompletableFuture.completedFuture(recorded(toolCall, PipelineMetrics.CIRCUIT_OPEN, start,
+                    fallbackOrError(guard, toolCall, argumentsKey, "Tool " + toolCall.getName() + " is temporarily unavailable (circuit open)")));
+        }
+
+        // Whoever claims first - the task starting, or the cleanup after a timeout - owns the bulkhead slot
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<ToolResult> result = new CompletableFuture<>();
+        Future<?> task = toolExecutor.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(dispatch(toolCall));
+            } finally {
+                guard.leaveBulkhead();
+            }
+        });
+
+        return result
+                .orTimeout(toolTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((toolResult, error) -> {
+                    if (error != null) {
+                        guard.onFailure();
+                        return recorded(toolCall, PipelineMetrics.TIMEOUT, start,
+                                fallbackOrError(guard, toolCall, argumentsKey, timedOut(toolCall).getError()));
+                    }
+                    if (isFailure(toolResult)) {
+                        guard.onFailure();
+                        ToolResult fallback = fallback(guard, toolCall, argumentsKey);
+                        return recorded(toolCall, PipelineMetrics.ERROR, start, fallback != null ? fallback : toolResult);
+                    }
+                    guard.onSuccess(argumentsKey, toolResult.getResult());
+                    return recorded(toolCall, PipelineMetrics.SUCCESS, start, toolResult);
+                })
+                .whenComplete((toolResult, error) -> {
+                    task.cancel(true);
+                    if (claimed.compareAndSet(false, true)) {
+                        guard.leaveBulkhead();
+                    }
+                });
+    }
+
+    /**
+     * Records how the call went - a stale result means the caller got the fallback
+     */
+    private ToolResult recorded(ToolCall toolCall, String outcome, long start, ToolResult result) {
+        metrics.recordToolCall(toolCall.getName(), outcome, System.nanoTime() - start);
+        if (result.isStale()) {
+            metrics.recordToolFallback(toolCall.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Dispatch multiple tool calls concurrently - results are in the order of the given calls
      */
     public List<ToolResult> dispatchAll(List<ToolCall> toolCalls) {
         log.info("Dispatching {} tool calls", toolCalls.size());
-        
-        List<ToolResult> results = new ArrayList<>();
-        for (ToolCall toolCall : toolCalls) {
-            results.add(dispatch(toolCall));
+
+        List<CompletableFuture<ToolResult>> futures = toolCalls.stream()
+                .map(this::dispatchAsync)
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    /**
+     * A shared result carries the id of the call that ran - every caller gets its own copy with its own id
+     */
+    private static ToolResult forCall(ToolResult result, ToolCall toolCall) {
+        if (Objects.equals(result.getToolCallId(), toolCall.getId())) {
+            return result;
+        }
+        ToolResult copy = new ToolResult(toolCall.getId(), result.getResult(), result.isSuccess());
+        copy.setError(result.getError());
+        copy.setStale(result.isStale());
+        return copy;
+    }
+
+    private ToolGuard guardFor(String toolName) {
+        if (mcpServerConfig.getTool(toolName) == null) {
+            return null;
+        }
+        return guards.computeIfAbsent(toolName, name -> new ToolGuard(name, guardSettings));
+    }
+
+    private ToolResult fallbackOrError(ToolGuard guard, ToolCall toolCall, String argumentsKey, String error) {
+        ToolResult fallback = fallback(guard, toolCall, argumentsKey);
+        return fallback != null ? fallback : ToolResult.error(toolCall.getId(), error);
+    }
+
+    /**
+     * The last good result for the same arguments, marked stale so the answer is not cached
+     */
+    private ToolResult fallback(ToolGuard guard, ToolCall toolCall, String argumentsKey) {
+        ToolGuard.Fallback fallback = guard.fallback(argumentsKey);
+        if (fallback == null) {
+            return null;
+        }
+
+        log.warn("Serving last good result of tool {} from {}", toolCall.getName(), fallback.producedAt());
+        ToolResult result = ToolResult.success(toolCall.getId(), fallback.result()
+                + "\n\nNote: live data is unavailable right now, this is the last result fetched at "
+                + FALLBACK_TIME.format(fallback.producedAt()) + ".");
+        result.setStale(true);
+        return result;
+    }
+
+    private static boolean isFailure(ToolResult result) {
+        return !result.isSuccess() || (result.getResult() != null && result.getResult().startsWith("Error"));
+    }
+
+    private ToolResult timedOut(ToolCall toolCall) {
+        log.warn("Tool call {} ({}) timed out after {}", toolCall.getId(), toolCall.getName(), toolTimeout);
+        return ToolResult.error(toolCall.getId(), "Tool " + toolCall.getName() + " timed out after " + toolTimeout.toMillis() + " ms");
+    }
+
+    /**
+     * The tool's own rendering of a successful result as the final answer, or null if the
+     * tool does not support direct answers, the call failed or the result is not an answer (nothing found)
+     */
+    public String formatDirectAnswer(ToolCall toolCall, ToolResult result) {
+        if (!result.isSuccess() || result.getResult() == null || result.getResult().startsWith("Error")) {
+            return null;
         }
-        
-        return results;
+
+        MCPTool tool = mcpServerConfig.getTool(toolCall.getName());
+        if (tool == null || !tool.supportsDirectAnswer()) {
+            return null;
+        }
+        return tool.formatDirectAnswer(toolCall.getArguments(), result.getResult());
+    }
+
+    /**
+     * A replaced or removed tool starts over: its breaker state and last good results
+     * belong to the old implementation
+     */
+    @EventListener
+    public void onToolRegistryChanged(ToolRegistryChangedEvent event) {
+        if (guards.remove(event.toolName()) != null) {
+            log.info("Reset guard of tool {} after registry change", event.toolName());
+        }
+    }
+
+    /**
+     * Bulkhead and circuit breaker state per tool that has been called at least once
+     */
+    public Map<String, Object> getToolStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        guards.forEach((name, guard) -> stats.put(name, guard.getStats()));
+        return stats;
+    }
+
+    public Map<String, Object> getCoalescingStats() {
+        return toolFlight.getStats();
     }
 
     /**
@@ -0,0 +1,211 @@
+package com.example.mcpgateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resilience state of one tool: a bulkhead (own concurrency limit, so one hung backend cannot
+ * absorb every thread), a circuit breaker over a rolling window of outcomes, and the last
+ * successful result per argument set to fall back on while the tool is failing.
+ */
+final class ToolGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolGuard.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    record Settings(int maxConcurrent, int windowSize, int minimumCalls, double failureRateThreshold,
+                    Duration openDuration, int fallbackEntries) {}
+
+    record Fallback(String result, Instant producedAt) {}
+
+    private final String toolName;
+    private final Settings settings;
+    private final Semaphore bulkhead;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ring buffer of the last windowSize outcomes, true = failure
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    // Access-ordered LRU of the last good result per argument set
+    private final LinkedHashMap<String, Fallback> lastGood = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+    private final AtomicLong fallbacksServed = new AtomicLong();
+
+    ToolGuard(String toolName, Settings settings) {
+        this.toolName = toolName;
+        this.settings = settings;
+        this.bulkhead = new Semaphore(settings.maxConcurrent());
+        this.window = new boolean[settings.windowSize()];
+    }
+
+    /**
+     * Stable key for an argument map, independent of the order the model emitted the arguments in
+     */
+    static String argumentsKey(Map<String, Object> arguments) {
+        return arguments == null ? "{}" : new TreeMap<>(arguments).toString();
+    }
+
+    boolean tryEnterBulkhead() {
+        if (bulkhead.tryAcquire()) {
+            return true;
+        }
+        bulkheadRejections.incrementAndGet();
+        return false;
+    }
+
+    void leaveBulkhead() {
+        bulkhead.release();
+    }
+
+    /**
+     * Closed: always. Open: not until open-duration has passed, then a single half-open probe.
+     */
+    boolean allowRequest() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= settings.openDuration().toNanos()) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.CLOSED) {
+                calls.incrementAndGet();
+                return true;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                calls.incrementAndGet();
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        circuitRejections.incrementAndGet();
+        return false;
+    }
+
+    void onSuccess(String argumentsKey, String result) {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                resetWindow();
+                log.info("Circuit for tool {} closed again after a successful probe", toolName);
+            }
+            record(false);
+
+            lastGood.put(argumentsKey, new Fallback(result, Instant.now()));
+            Iterator<String> eldest = lastGood.keySet().iterator();
+            while (lastGood.size() > settings.fallbackEntries() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure() {
+        failures.incrementAndGet();
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && windowCount >= settings.minimumCalls()
+                    && (double) windowFailures / windowCount >= settings.failureRateThreshold()) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Last good result for these arguments, or null
+     */
+    Fallback fallback(String argumentsKey) {
+        lock.lock();
+        try {
+            Fallback fallback = lastGood.get(argumentsKey);
+            if (fallback != null) {
+                fallbacksServed.incrementAndGet();
+            }
+            return fallback;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("state", state.name());
+            stats.put("windowCalls", windowCount);
+            stats.put("windowFailureRate", windowCount == 0 ? 0.0 : (double) windowFailures / windowCount);
+            stats.put("fallbackEntries", lastGood.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("inFlight", settings.maxConcurrent() - bulkhead.availablePermits());
+        stats.put("maxConcurrent", settings.maxConcurrent());
+        stats.put("calls", calls.get());
+        stats.put("failures", failures.get());
+        stats.put("bulkheadRejections", bulkheadRejections.get());
+        stats.put("circuitRejections", circuitRejections.get());
+        stats.put("fallbacksServed", fallbacksServed.get());
+        return stats;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        probeInFlight = false;
+        log.warn("Circuit for tool {} opened ({}/{} recent calls failed), failing fast for {}",
+                toolName, windowFailures, windowCount, settings.openDuration());
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
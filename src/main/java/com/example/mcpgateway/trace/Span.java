@@ -0,0 +1,156 @@
+package com.example.mcpgateway.trace;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One timed operation of a trace. Opening a span makes it the current span of the opening
+ * thread; {@link #close()} ends it and makes the previous span current again, so spans are
+ * meant for try-with-resources. Spans started outside a trace are a no-op.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null, null);
+
+    private final Tracer tracer;
+    private final Trace trace;
+    private final Span parent;
+    // Current on the opening thread before this span - restored on close
+    private final Span previous;
+    private final String name;
+    private final String spanId;
+    private final String thread;
+    private final Instant startedAt;
+    private final long startNanos;
+    // Guarded by attributesLock, not a monitor - spans are set on virtual threads
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final ReentrantLock attributesLock = new ReentrantLock();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile String error;
+    private volatile long durationNanos = -1;
+
+    Span(Tracer tracer, Trace trace, Span parent, Span previous, String name) {
+        this.tracer = tracer;
+        this.trace = trace;
+        this.parent = parent;
+        this.previous = previous;
+        this.name = name;
+        this.spanId = trace != null ? Tracer.newId(8) : null;
+        this.thread = trace != null ? Thread.currentThread().toString() : null;
+        this.startedAt = trace != null ? Instant.now() : null;
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    /**
+     * @return the trace id, or null for a no-op span
+     */
+    public String getTraceId() {
+        return trace != null ? trace.getTraceId() : null;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (trace != null && value != null) {
+            attributesLock.lock();
+            try {
+                attributes.put(key, value);
+            } finally {
+                attributesLock.unlock();
+            }
+        }
+        return this;
+    }
+
+    public Span setError(String message) {
+        if (trace != null) {
+            error = message != null ? message : "error";
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span without touching the current thread's span - for a span that ends on
+     * another thread than the one that opened it. Only the first call ends it, also when
+     * two threads race (a hedge loser closing while the request ends the span).
+     */
+    public void end() {
+        if (trace == null || !ended.compareAndSet(false, true)) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        trace.onEnd(this);
+    }
+
+    /**
+     * Makes the previous span current again on this thread, leaving the span open
+     */
+    public void detach() {
+        if (trace != null) {
+            tracer.restore(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+        detach();
+    }
+
+    Trace getTrace() {
+        return trace;
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    Span getPrevious() {
+        return previous;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getError() {
+        return error;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    Instant getStartedAt() {
+        return startedAt;
+    }
+
+    Map<String, Object> toMap(long traceStartNanos) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("name", name);
+        span.put("spanId", spanId);
+        span.put("parentSpanId", parent != null ? parent.spanId : null);
+        span.put("thread", thread);
+        span.put("startMs", Trace.millis(startNanos - traceStartNanos));
+        span.put("durationMs", Trace.millis(durationNanos));
+        attributesLock.lock();
+        try {
+            span.put("attributes", new LinkedHashMap<>(attributes));
+        } finally {
+            attributesLock.unlock();
+        }
+        if (error != null) {
+            span.put("error", error);
+        }
+        return span;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.mcpgateway.trace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The finished spans of one request. The trace is published to the tracer's buffer when its
+ * root span ends; spans of work that outlives the request (a cancelled hedge) are still added.
+ */
+final class Trace {
+
+    private final String traceId;
+    private final int maxSpans;
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger spanCount = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Tracer tracer;
+    private Span root;
+
+    Trace(Tracer tracer, String traceId, int maxSpans) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.maxSpans = maxSpans;
+    }
+
+    void setRoot(Span root) {
+        this.root = root;
+    }
+
+    String getTraceId() {
+        return traceId;
+    }
+
+    long getDurationNanos() {
+        return root.getDurationNanos();
+    }
+
+    void onEnd(Span span) {
+        // A runaway agent loop must not grow a trace without bound
+        if (spanCount.incrementAndGet() > maxSpans && span != root) {
+            dropped.incrementAndGet();
+        } else {
+            spans.add(span);
+        }
+        if (span == root) {
+            tracer.publish(this);
+        }
+    }
+
+    Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("traceId", traceId);
+        summary.put("name", root.getName());
+        summary.put("startedAt", root.getStartedAt().toString());
+        summary.put("durationMs", millis(root.getDurationNanos()));
+        summary.put("spans", spans.size());
+        summary.put("slowestSpan", slowestSpan());
+        if (root.getError() != null) {
+            summary.put("error", root.getError());
+        }
+        return summary;
+    }
+
+    Map<String, Object> toMap() {
+        List<Span> ordered = new ArrayList<>(spans);
+        ordered.sort(Comparator.comparingLong(Span::getStartNanos));
+
+        List<Map<String, Object>> rendered = new ArrayList<>(ordered.size());
+        ordered.forEach(span -> rendered.add(span.toMap(root.getStartNanos())));
+
+        Map<String, Object> trace = toSummary();
+        trace.put("droppedSpans", dropped.get());
+        trace.put("spans", rendered);
+        return trace;
+    }
+
+    /**
+     * The span with the most time of its own, not spent in child spans - where the time of a
+     * slow request went. The root's own time is the gateway itself (caches, queueing).
+     */
+    private String slowestSpan() {
+        Map<Span, Long> selfNanos = new HashMap<>();
+        for (Span span : spans) {
+            selfNanos.merge(span, span.getDurationNanos(), Long::sum);
+            if (span.getParent() != null) {
+                selfNanos.merge(span.getParent(), -span.getDurationNanos(), Long::sum);
+            }
+        }
+        Span slowest = null;
+        long slowestNanos = Long.MIN_VALUE;
+        for (Span span : spans) {
+            long self = selfNanos.get(span);
+            if (self > slowestNanos) {
+                slowest = span;
+                slowestNanos = self;
+            }
+        }
+        return slowest != null ? slowest.getName() : null;
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
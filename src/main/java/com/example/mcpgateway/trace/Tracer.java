@@ -0,0 +1,182 @@
+package com.example.mcpgateway.trace;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process request tracing. Each question gets a trace id and a tree of spans (LLM calls,
+ * tool dispatch, gateway fetches); finished traces are kept in a fixed-size ring buffer that
+ * /ask-ai/traces reads, so a slow answer can be attributed to the span that made it slow.
+ * The current span is a thread local, carried across the ask executor by {@link #wrap(ExecutorService)}.
+ * Ids follow the W3C trace context format.
+ */
+@Component
+public class Tracer {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final boolean enabled;
+    private final int maxSpansPerTrace;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final AtomicReferenceArray<Trace> buffer;
+    private final AtomicLong published = new AtomicLong();
+
+    public Tracer(
+            @Value("${tracing.enabled:true}") boolean enabled,
+            @Value("${tracing.buffer-size:256}") int bufferSize,
+            @Value("${tracing.max-spans-per-trace:500}") int maxSpansPerTrace) {
+        this.enabled = enabled;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+    }
+
+    /**
+     * Opens the root span of a new trace and makes it current
+     */
+    public Span startTrace(String name) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        Trace trace = new Trace(this, newId(16), maxSpansPerTrace);
+        Span root = new Span(this, trace, null, current.get(), name);
+        trace.setRoot(root);
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Opens a child of the current span and makes it current; a no-op outside a trace
+     */
+    public Span startSpan(String name) {
+        Span parent = current.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent.getTrace(), parent, parent, name);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * @return the trace id of the current span, or null outside a trace
+     */
+    public String currentTraceId() {
+        Span span = current.get();
+        return span != null ? span.getTraceId() : null;
+    }
+
+    /**
+     * The task, run with the span that is current now
+     */
+    public Runnable wrap(Runnable task) {
+        Span captured = current.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Span outer = current.get();
+            current.set(captured);
+            try {
+                task.run();
+            } finally {
+                set(outer);
+            }
+        };
+    }
+
+    /**
+     * An executor that runs each task with the span current at submission
+     */
+    public ExecutorService wrap(ExecutorService executor) {
+        return new TracingExecutorService(executor, this);
+    }
+
+    /**
+     * Runs the action outside any trace - for work it starts that does not belong to the request
+     */
+    public void runDetached(Runnable action) {
+        Span outer = current.get();
+        current.remove();
+        try {
+            action.run();
+        } finally {
+            set(outer);
+        }
+    }
+
+    /**
+     * The most recent traces first, optionally only those that took at least minDurationMs
+     */
+    public List<Map<String, Object>> recentTraces(int limit, long minDurationMs) {
+        long minNanos = TimeUnit.MILLISECONDS.toNanos(minDurationMs);
+        List<Map<String, Object>> traces = new ArrayList<>();
+        long newest = published.get() - 1;
+        for (long i = newest; i >= 0 && i > newest - buffer.length() && traces.size() < limit; i--) {
+            Trace trace = buffer.get(slot(i));
+            if (trace != null && trace.getDurationNanos() >= minNanos) {
+                traces.add(trace.toSummary());
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * @return the trace with all its spans, or null if it is unknown or no longer buffered
+     */
+    public Map<String, Object> getTrace(String traceId) {
+        for (int i = 0; i < buffer.length(); i++) {
+            Trace trace = buffer.get(i);
+            if (trace != null && trace.getTraceId().equals(traceId)) {
+                return trace.toMap();
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("bufferSize", buffer.length());
+        stats.put("tracesRecorded", published.get());
+        return stats;
+    }
+
+    void publish(Trace trace) {
+        buffer.set(slot(published.getAndIncrement()), trace);
+    }
+
+    void restore(Span span) {
+        if (current.get() == span) {
+            set(span.getPrevious());
+        }
+    }
+
+    private void set(Span span) {
+        if (span == null) {
+            current.remove();
+        } else {
+            current.set(span);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % buffer.length());
+    }
+
+    static String newId(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+}
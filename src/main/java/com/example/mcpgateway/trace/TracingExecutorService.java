@@ -0,0 +1,56 @@
+package com.example.mcpgateway.trace;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every task with the span that was current when it was submitted. submit / invokeAll
+ * all end up in {@link #execute(Runnable)}, on the submitting thread.
+ */
+final class TracingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Tracer tracer;
+
+    TracingExecutorService(ExecutorService delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(tracer.wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerCacheTest {
+
+    private static final Set<String> RATES = Set.of(GetExchangeRatesTool.NAME);
+
+    private final AnswerCache cache = new AnswerCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void storesAnswersComputedWithoutAnInvalidation() {
+        cache.put("usd eur", "0.92", RATES, cache.generation());
+
+        assertThat(cache.get("usd eur")).isEqualTo("0.92");
+    }
+
+    @Test
+    void dropsAnAnswerWhoseToolDataChangedWhileItWasComputed() {
+        long generation = cache.generation();
+        cache.onExchangeRatesChanged(new ExchangeRatesChangedEvent(Instant.now(), 10));
+        cache.put("usd eur", "0.92 from the old snapshot", RATES, generation);
+
+        assertThat(cache.get("usd eur")).isNull();
+        assertThat(cache.getStats()).containsEntry("staleDrops", 1L);
+    }
+
+    @Test
+    void invalidatingAnotherToolDoesNotDropTheAnswer() {
+        long generation = cache.generation();
+        cache.invalidateDependingOn("other_tool");
+        cache.put("usd eur", "0.92", RATES, generation);
+
+        assertThat(cache.get("usd eur")).isEqualTo("0.92");
+    }
+
+    @Test
+    void answersStartedAfterTheInvalidationAreStored() {
+        cache.invalidateDependingOn(GetExchangeRatesTool.NAME);
+        cache.put("usd eur", "0.93", RATES, cache.generation());
+
+        assertThat(cache.get("usd eur")).isEqualTo("0.93");
+    }
+
+    @Test
+    void invalidationEvictsOnlyDependentAnswers() {
+        cache.put("usd eur", "0.92", RATES, cache.generation());
+        cache.put("hello", "hi", Set.of(), cache.generation());
+
+        assertThat(cache.invalidateDependingOn(GetExchangeRatesTool.NAME)).isEqualTo(1);
+        assertThat(cache.get("usd eur")).isNull();
+        assertThat(cache.get("hello")).isEqualTo("hi");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        cache.put("a", "1", Set.of(), cache.generation());
+        cache.put("b", "2", Set.of(), cache.generation());
+        cache.get("a");
+        cache.put("c", "3", Set.of(), cache.generation());
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ZERO);
+        cache.put("usd eur", "0.92", RATES, cache.generation());
+
+        assertThat(cache.get("usd eur")).isNull();
+    }
+}
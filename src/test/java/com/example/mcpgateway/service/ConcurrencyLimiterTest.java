@@ -0,0 +1,113 @@
+package com.example.mcpgateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 8);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 100);
+        ReflectionTestUtils.setField(limiter, "queueSize", 10);
+        ReflectionTestUtils.setField(limiter, "maxWait", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(limiter, "smoothing", 0.2);
+    }
+
+    @Test
+    void growsWhileTheLimitIsUsedAndLatencyHolds() {
+        acquire(8);
+        for (int i = 0; i < 20; i++) {
+            limiter.onLlmLatency(FAST);
+        }
+
+        assertThat(limit()).isGreaterThan(8);
+    }
+
+    @Test
+    void doesNotGrowWhileIdle() {
+        for (int i = 0; i < 20; i++) {
+            limiter.onLlmLatency(FAST);
+        }
+
+        assertThat(limit()).isEqualTo(8);
+    }
+
+    @Test
+    void shrinksToTheMinimumWhenLatencyRises() {
+        limiter.onLlmLatency(FAST);
+        for (int i = 0; i < 50; i++) {
+            limiter.onLlmLatency(SLOW);
+        }
+
+        assertThat(limit()).isEqualTo(2);
+    }
+
+    @Test
+    void queuedRequestTimesOutAtItsDeadline() {
+        acquire(8);
+
+        long start = System.nanoTime();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(limiter.getStats()).containsEntry("timedOut", 1L).containsEntry("queued", 0);
+    }
+
+    @Test
+    void shedsImmediatelyWhenTheQueueIsFull() {
+        ReflectionTestUtils.setField(limiter, "queueSize", 0);
+        acquire(8);
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getStats()).containsEntry("rejected", 1L).containsEntry("timedOut", 0L);
+    }
+
+    @Test
+    void releaseHandsThePermitToAQueuedRequest() throws Exception {
+        ReflectionTestUtils.setField(limiter, "maxWait", Duration.ofSeconds(5));
+        acquire(8);
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while ((int) limiter.getStats().get("queued") == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release();
+
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getStats()).containsEntry("inFlight", 8).containsEntry("admitted", 9L);
+    }
+
+    @Test
+    void disabledLimiterAdmitsEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+
+    private void acquire(int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+
+    private int limit() {
+        return (int) limiter.getStats().get("limit");
+    }
+}
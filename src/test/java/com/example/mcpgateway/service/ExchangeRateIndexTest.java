@@ -0,0 +1,118 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExchangeRateIndexTest {
+
+    private final ExchangeRate usdEur = rate("USD", "EUR", 0.92);
+    private final ExchangeRate usdEurBank = rate("USD", "EUR", 0.91);
+    private final ExchangeRate usdGbp = rate("USD", "GBP", 0.79);
+    private final ExchangeRate eurGbp = rate("EUR", "GBP", 0.85);
+    private final ExchangeRate usdtUsd = rate("USDT", "USD", 1.0);
+    private final ExchangeRate eurX1 = rate("EUR", "X1", 3.5);
+
+    private final ExchangeRateIndex index = ExchangeRateIndex.of(List.of(usdEur, usdEurBank, usdGbp, eurGbp, usdtUsd, eurX1));
+
+    @Test
+    void pairLookupReturnsAllRowsForThePairInGatewayOrder() {
+        assertThat(index.byPair("USD", "EUR")).containsExactly(usdEur, usdEurBank);
+        assertThat(index.byPair("EUR", "USD")).isEmpty();
+    }
+
+    @Test
+    void lookupsIgnoreCase() {
+        assertThat(index.byPair("usd", "Eur")).containsExactly(usdEur, usdEurBank);
+        assertThat(index.byFrom("eur")).containsExactly(eurGbp, eurX1);
+        assertThat(index.byTo("gbp")).containsExactly(usdGbp, eurGbp);
+    }
+
+    @Test
+    void fromAndToLookupsIncludeRowsWhoseOtherSideIsNotPackable() {
+        assertThat(index.byFrom("EUR")).contains(eurX1);
+        assertThat(index.byTo("USD")).containsExactly(usdtUsd);
+    }
+
+    @Test
+    void codesThatAreNotThreeLettersUseTheStringFallback() {
+        assertThat(index.byPair("USDT", "USD")).containsExactly(usdtUsd);
+        assertThat(index.byPair("usdt", "usd")).containsExactly(usdtUsd);
+        assertThat(index.byFrom("usdt")).containsExactly(usdtUsd);
+        assertThat(index.byPair("EUR", "x1")).containsExactly(eurX1);
+        assertThat(index.byTo("X1")).containsExactly(eurX1);
+        assertThat(index.byPair("USDT", "EUR")).isEmpty();
+        assertThat(index.byFrom("1€")).isEmpty();
+    }
+
+    @Test
+    void findPicksTheLookupByWhichCurrenciesAreGiven() {
+        assertThat(index.find("USD", "GBP")).containsExactly(usdGbp);
+        assertThat(index.find("USD", null)).containsExactly(usdEur, usdEurBank, usdGbp);
+        assertThat(index.find(null, "EUR")).containsExactly(usdEur, usdEurBank);
+        assertThat(index.find(null, null)).hasSize(6);
+    }
+
+    @Test
+    void hasCurrencyChecksBothSides() {
+        assertThat(index.hasCurrency("gbp")).isTrue();
+        assertThat(index.hasCurrency("USDT")).isTrue();
+        assertThat(index.hasCurrency("JPY")).isFalse();
+        assertThat(index.hasCurrency(null)).isFalse();
+    }
+
+    @Test
+    void packCodeAcceptsOnlyThreeAsciiLetters() {
+        assertThat(ExchangeRateIndex.packCode("usd")).isEqualTo(ExchangeRateIndex.packCode("USD")).isNotNegative();
+        assertThat(ExchangeRateIndex.packCode("USD")).isNotEqualTo(ExchangeRateIndex.packCode("USE"));
+        assertThat(ExchangeRateIndex.packCode("US1")).isNegative();
+        assertThat(ExchangeRateIndex.packCode("US")).isNegative();
+        assertThat(ExchangeRateIndex.packCode("ÜSD")).isNegative();
+        assertThat(ExchangeRateIndex.packCode(null)).isNegative();
+    }
+
+    @Test
+    void manyPairsSurviveCollisionsInTheOpenAddressingTable() {
+        List<ExchangeRate> rates = new ArrayList<>();
+        for (char a = 'A'; a <= 'Z'; a++) {
+            for (char b = 'A'; b <= 'Z'; b++) {
+                rates.add(rate("" + a + b + 'X', "EUR", a * 100 + b));
+            }
+        }
+        ExchangeRateIndex large = ExchangeRateIndex.of(rates);
+
+        for (ExchangeRate rate : rates) {
+            assertThat(large.byPair(rate.getFromCurrencyAlphabeticCode(), "EUR")).containsExactly(rate);
+        }
+        assertThat(large.byTo("EUR")).hasSize(26 * 26);
+    }
+
+    @Test
+    void returnedListsAreImmutable() {
+        assertThatThrownBy(() -> index.byPair("USD", "EUR").add(eurGbp)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> index.byPair("USDT", "USD").clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void contentHashDependsOnContentNotIdentity() {
+        ExchangeRateIndex same = ExchangeRateIndex.of(List.of(rate("USD", "EUR", 0.92)));
+        ExchangeRateIndex copy = ExchangeRateIndex.of(List.of(rate("USD", "EUR", 0.92)));
+        ExchangeRateIndex changed = ExchangeRateIndex.of(List.of(rate("USD", "EUR", 0.93)));
+
+        assertThat(same.contentHash()).isEqualTo(copy.contentHash()).isNotEqualTo(changed.contentHash());
+    }
+
+    static ExchangeRate rate(String from, String to, double value) {
+        ExchangeRate rate = new ExchangeRate();
+        rate.setFromCurrencyAlphabeticCode(from);
+        rate.setToCurrencyAlphabeticCode(to);
+        rate.setExchangeRate(value);
+        rate.setPaymentMethods(List.of("CARD"));
+        return rate;
+    }
+}
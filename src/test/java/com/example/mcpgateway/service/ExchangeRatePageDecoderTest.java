@@ -0,0 +1,87 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExchangeRatePageDecoderTest {
+
+    private static final String USD_EUR = """
+            {"fromCurrencyAlphabeticCode":"USD","toCurrencyAlphabeticCode":"EUR","exchangeRate":0.92,"paymentMethods":["CARD"]}""";
+    private static final String EUR_GBP = """
+            {"fromCurrencyAlphabeticCode":"EUR","toCurrencyAlphabeticCode":"GBP","exchangeRate":0.85,"extra":{"ignored":[1,2]}}""";
+
+    private final ExchangeRatePageDecoder decoder = new ExchangeRatePageDecoder(new ObjectMapper());
+    private final List<ExchangeRate> rows = new ArrayList<>();
+
+    @Test
+    void decodesFlatPageLayout() throws IOException {
+        ExchangeRatePageDecoder.PageInfo page = decode("""
+                {"content":[%s,%s],"pageable":{"pageNumber":2},"number":2,"totalPages":7,"totalElements":130}"""
+                .formatted(USD_EUR, EUR_GBP));
+
+        assertThat(page).isEqualTo(new ExchangeRatePageDecoder.PageInfo(2, 7, 130, 2));
+        assertThat(rows).extracting(ExchangeRate::getFromCurrencyAlphabeticCode).containsExactly("USD", "EUR");
+        assertThat(rows.get(0).getExchangeRate()).isEqualTo(0.92);
+        assertThat(rows.get(0).getPaymentMethods()).containsExactly("CARD");
+    }
+
+    @Test
+    void decodesNestedPageMetadata() throws IOException {
+        ExchangeRatePageDecoder.PageInfo page = decode("""
+                {"content":[%s],"page":{"size":20,"number":3,"totalElements":61,"totalPages":4}}"""
+                .formatted(USD_EUR));
+
+        assertThat(page).isEqualTo(new ExchangeRatePageDecoder.PageInfo(3, 4, 61, 1));
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void metadataBeforeContentIsRead() throws IOException {
+        ExchangeRatePageDecoder.PageInfo page = decode("""
+                {"page":{"number":1,"totalPages":2,"totalElements":21},"content":[%s]}""".formatted(EUR_GBP));
+
+        assertThat(page).isEqualTo(new ExchangeRatePageDecoder.PageInfo(1, 2, 21, 1));
+    }
+
+    @Test
+    void skipsNullAndNonObjectRowsWithoutLosingTheRest() throws IOException {
+        ExchangeRatePageDecoder.PageInfo page = decode("""
+                {"content":[null,%s,"oops",[1,[2]],%s],"page":{"number":0,"totalPages":5,"totalElements":99}}"""
+                .formatted(USD_EUR, EUR_GBP));
+
+        assertThat(rows).extracting(ExchangeRate::getToCurrencyAlphabeticCode).containsExactly("EUR", "GBP");
+        assertThat(page).isEqualTo(new ExchangeRatePageDecoder.PageInfo(0, 5, 99, 2));
+    }
+
+    @Test
+    void missingMetadataFallsBackToASinglePage() throws IOException {
+        ExchangeRatePageDecoder.PageInfo page = decode("""
+                {"content":[%s],"totalPages":null}""".formatted(USD_EUR));
+
+        assertThat(page).isEqualTo(new ExchangeRatePageDecoder.PageInfo(0, 1, -1, 1));
+    }
+
+    @Test
+    void rejectsANonObjectBody() {
+        assertThatThrownBy(() -> decode("[]")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void rejectsTruncatedContent() {
+        assertThatThrownBy(() -> decode("{\"content\":[" + USD_EUR)).isInstanceOf(IOException.class);
+    }
+
+    private ExchangeRatePageDecoder.PageInfo decode(String json) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), rows::add);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.dto.ToolCall;
+import com.example.mcpgateway.dto.ToolResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FastPathRouterTest {
+
+    private final ToolDispatchService toolDispatchService = mock(ToolDispatchService.class);
+    private final ExchangeRateSnapshotService snapshotService = mock(ExchangeRateSnapshotService.class);
+    private final FastPathRouter router = new FastPathRouter(toolDispatchService, snapshotService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(router, "enabled", true);
+        when(toolDispatchService.dispatchAsync(any()))
+                .thenAnswer(call -> CompletableFuture.completedFuture(
+                        ToolResult.success(call.<ToolCall>getArgument(0).getId(), "rates")));
+        when(toolDispatchService.formatDirectAnswer(any(), any())).thenReturn("pair answer");
+    }
+
+    @Test
+    void paymentMethodsListsEveryDistinctMethodOfThePair() {
+        snapshot(rate("USD", "EUR", "CARD", "SEPA", "IDEAL", "SOFORT", "GIROPAY", "BANCONTACT", "EPS"),
+                rate("USD", "EUR", "SEPA", "PAYPAL"),
+                rate("USD", "GBP", "FASTER_PAYMENTS"));
+
+        String answer = router.route("What payment methods can I use for USD → EUR?", new AskContext());
+
+        assertThat(answer).startsWith("**Payment methods for USD → EUR**\n\n8 payment methods available:\n");
+        assertThat(answer.lines().filter(line -> line.startsWith("- ")))
+                .containsExactly("- CARD", "- SEPA", "- IDEAL", "- SOFORT", "- GIROPAY", "- BANCONTACT", "- EPS", "- PAYPAL");
+        assertThat(answer).doesNotContain("more").doesNotContain("FASTER_PAYMENTS").doesNotContain("pair answer");
+    }
+
+    @Test
+    void paymentMethodsSaysSoWhenThePairHasNone() {
+        snapshot(rate("USD", "EUR"));
+
+        assertThat(router.route("payment methods for usd to eur", new AskContext()))
+                .isEqualTo("**Payment methods for USD → EUR**\n\nNo payment methods are configured for USD → EUR.");
+    }
+
+    @Test
+    void pairQuestionsKeepTheToolAnswer() {
+        snapshot(rate("USD", "EUR", "CARD"));
+
+        assertThat(router.route("usd to eur rate", new AskContext()))
+                .isEqualTo("**USD → EUR exchange rate**\n\npair answer");
+    }
+
+    @Test
+    void pairWithoutRatesFallsThroughToTheLlm() {
+        snapshot(rate("USD", "GBP", "CARD"), rate("EUR", "GBP", "CARD"));
+        when(toolDispatchService.formatDirectAnswer(any(), any())).thenReturn(null);
+
+        assertThat(router.route("which payment methods for usd to eur", new AskContext())).isNull();
+        assertThat(router.failedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownCurrenciesFallThroughWithoutCallingTheTool() {
+        snapshot(rate("USD", "EUR", "CARD"));
+
+        assertThat(router.route("payment methods for usd to xyz", new AskContext())).isNull();
+        assertThat(router.fallThroughCount()).isEqualTo(1);
+    }
+
+    private void snapshot(ExchangeRate... rates) {
+        when(snapshotService.getSnapshot())
+                .thenReturn(new ExchangeRateSnapshotService.Snapshot(ExchangeRateIndex.of(List.of(rates)), Instant.now()));
+    }
+
+    private static ExchangeRate rate(String from, String to, String... methods) {
+        ExchangeRate rate = ExchangeRateIndexTest.rate(from, to, 1.0);
+        rate.setPaymentMethods(List.of(methods));
+        return rate;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatRequest;
+import com.example.mcpgateway.dto.Usage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmRateLimiterTest {
+
+    private final LlmRateLimiter limiter = new LlmRateLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "requestsPerMinute", 60);
+        ReflectionTestUtils.setField(limiter, "tokensPerMinute", 100_000);
+        ReflectionTestUtils.setField(limiter, "completionTokensEstimate", 500);
+        ReflectionTestUtils.setField(limiter, "maxWait", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(limiter, "defaultBackoff", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void estimatesPromptCharactersPlusTheCompletionAllowance() {
+        assertThat(limiter.estimateTokens(request(400))).isEqualTo(100 + 500);
+    }
+
+    @Test
+    void rejectsOnceTheRequestBudgetIsSpent() {
+        ReflectionTestUtils.setField(limiter, "requestsPerMinute", 2);
+
+        assertThat(limiter.acquire(request(0))).isEqualTo(500);
+        assertThat(limiter.acquire(request(0))).isEqualTo(500);
+        assertThat(limiter.acquire(request(0))).isEqualTo(-1);
+        assertThat(limiter.getStats()).containsEntry("granted", 2L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void rejectsOnceTheTokenBudgetIsSpent() {
+        ReflectionTestUtils.setField(limiter, "tokensPerMinute", 1_000);
+
+        assertThat(limiter.acquire(request(0))).isEqualTo(500);
+        assertThat(limiter.acquire(request(0))).isEqualTo(500);
+        assertThat(limiter.acquire(request(0))).isEqualTo(-1);
+    }
+
+    @Test
+    void waitsForTheBucketToRefillWithinMaxWait() {
+        // Refills 1M tokens per second; the second call is 40k tokens short, about 40 ms
+        ReflectionTestUtils.setField(limiter, "tokensPerMinute", 60_000_000);
+        ReflectionTestUtils.setField(limiter, "completionTokensEstimate", 30_020_000);
+        ReflectionTestUtils.setField(limiter, "maxWait", Duration.ofSeconds(2));
+
+        assertThat(limiter.acquire(request(0))).isEqualTo(30_020_000);
+        long start = System.nanoTime();
+        assertThat(limiter.acquire(request(0))).isEqualTo(30_020_000);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(limiter.getStats()).containsEntry("queued", 1L).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void oversizedPromptIsCappedToTheBucketSize() {
+        ReflectionTestUtils.setField(limiter, "tokensPerMinute", 1_000);
+
+        assertThat(limiter.acquire(request(40_000))).isEqualTo(1_000);
+    }
+
+    @Test
+    void reconcileReturnsTokensTheUpstreamDidNotCount() {
+        long reserved = limiter.acquire(request(0));
+        limiter.reconcile(reserved, usage(100));
+
+        assertThat((long) limiter.getStats().get("tokensRemaining")).isBetween(99_900L, 100_000L);
+    }
+
+    @Test
+    void reconcileChargesTokensBeyondTheEstimate() {
+        long reserved = limiter.acquire(request(0));
+        limiter.reconcile(reserved, usage(10_500));
+
+        assertThat((long) limiter.getStats().get("tokensRemaining")).isBetween(89_500L, 89_600L);
+    }
+
+    @Test
+    void releaseGivesBackTheReservationButKeepsTheRequestCounted() {
+        ReflectionTestUtils.setField(limiter, "requestsPerMinute", 1);
+
+        long reserved = limiter.acquire(request(0));
+        limiter.release(reserved);
+
+        assertThat((long) limiter.getStats().get("tokensRemaining")).isEqualTo(100_000L);
+        assertThat(limiter.acquire(request(0))).isEqualTo(-1);
+    }
+
+    @Test
+    void upstreamThrottlingPausesCallersDespiteBudget() {
+        limiter.onThrottled("30");
+
+        assertThat(limiter.acquire(request(0))).isEqualTo(-1);
+        assertThat((long) limiter.getStats().get("pausedForMs")).isGreaterThan(29_000L);
+        assertThat(limiter.getStats()).containsEntry("throttledByUpstream", 1L);
+    }
+
+    @Test
+    void unparsableRetryAfterFallsBackToTheDefaultBackoff() {
+        limiter.onThrottled("Wed, 21 Oct 2026 07:28:00 GMT");
+
+        assertThat((long) limiter.getStats().get("pausedForMs")).isBetween(4_000L, 5_000L);
+    }
+
+    private static OllamaChatRequest request(int promptChars) {
+        return new OllamaChatRequest("test-model",
+                List.of(new OllamaChatRequest.Message("user", "x".repeat(promptChars))));
+    }
+
+    private static Usage usage(int totalTokens) {
+        Usage usage = new Usage();
+        usage.setTotal_tokens(totalTokens);
+        return usage;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.config.LlmRoutingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmRouterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final LlmRoutingProperties properties = new LlmRoutingProperties();
+    private final List<LlmRoute> routes = List.of(route("a"), route("b"));
+    private final LlmRouter router = new LlmRouter(routes, properties, executor);
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CountDownLatch loserCancelled = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setInitialDelay(Duration.ofMillis(50));
+        properties.getHedge().setMinDelay(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hedgeWinsOverAStuckPrimaryAndCancelsIt() throws Exception {
+        String answer = router.execute(route -> attempts.incrementAndGet() == 1 ? hangUntilCancelled() : "hedged answer");
+
+        assertThat(answer).isEqualTo("hedged answer");
+        assertThat(loserCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(router.getStats()).containsEntry("hedges", 1L).containsEntry("hedgeWins", 1L);
+        assertThat(routes).allMatch(LlmRoute::isHealthy);
+        assertThat(failures()).isZero();
+    }
+
+    @Test
+    void primaryThatFinishesFirstCancelsTheHedge() throws Exception {
+        String answer = router.execute(route -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(150);
+                return "primary answer";
+            }
+            return hangUntilCancelled();
+        });
+
+        assertThat(answer).isEqualTo("primary answer");
+        assertThat(loserCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(router.getStats()).containsEntry("hedges", 1L).containsEntry("hedgeWins", 0L);
+        assertThat(failures()).isZero();
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        String answer = router.execute(route -> {
+            attempts.incrementAndGet();
+            return "answer";
+        });
+
+        assertThat(answer).isEqualTo("answer");
+        assertThat(attempts).hasValue(1);
+        assertThat(router.getStats()).containsEntry("hedges", 0L);
+    }
+
+    @Test
+    void failedAttemptFailsOverAndMarksItsRouteUnhealthy() throws Exception {
+        properties.getHedge().setEnabled(false);
+
+        String answer = router.execute(route -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("upstream 500");
+            }
+            return "answer";
+        });
+
+        assertThat(answer).isEqualTo("answer");
+        assertThat(router.getStats()).containsEntry("failovers", 1L);
+        assertThat(routes).filteredOn(route -> !route.isHealthy()).hasSize(1);
+    }
+
+    @Test
+    void lastErrorSurfacesWhenEveryRouteFails() {
+        assertThatThrownBy(() -> router.execute(route -> {
+            throw new IllegalStateException("down: " + attempts.incrementAndGet());
+        })).isInstanceOf(IllegalStateException.class).hasMessage("down: 2");
+    }
+
+    @Test
+    void streamedFailoverStopsOnceOutputReachedTheClient() {
+        assertThatThrownBy(() -> router.executeWithFailover(route -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("stream broke off");
+        }, () -> false)).hasMessage("stream broke off");
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    private String hangUntilCancelled() {
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            loserCancelled.countDown();
+            throw new IllegalStateException("cancelled", e);
+        }
+        return "too late";
+    }
+
+    private long failures() {
+        return routes.stream().mapToLong(route -> (long) route.getStats().get("failures")).sum();
+    }
+
+    private static LlmRoute route(String name) {
+        return new LlmRoute(name, "model-" + name, 1, null, null);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.ExchangeRate;
+import com.example.mcpgateway.mcp.tools.GetExchangeRatesTool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The labelled paraphrase set the similarity threshold was picked from: with question frames
+ * stripped, real paraphrases score at least 0.95 and the closest non-paraphrase 0.84, so 0.9 sits
+ * in the middle of the gap.
+ */
+class SemanticAnswerCacheTest {
+
+    private static final double THRESHOLD = 0.9;
+    private static final Set<String> RATES = Set.of(GetExchangeRatesTool.NAME);
+
+    private final ExchangeRateSnapshotService snapshotService = mock(ExchangeRateSnapshotService.class);
+    private final SemanticAnswerCache cache = new SemanticAnswerCache(snapshotService);
+
+    static Stream<List<String>> paraphrases() {
+        return Stream.of(
+                List.of("EUR to USD rate", "How much is a EUR in USD?"),
+                List.of("EUR to USD rate", "What is the EUR to USD rate?"),
+                List.of("EUR to USD rate", "How much is 1 euro in dollars?"),
+                List.of("What is the exchange rate from USD to EUR", "USD to EUR exchange rate please"),
+                List.of("What's the current rate for GBP to USD?", "GBP to USD rate"),
+                List.of("Can you tell me the USD to JPY rate?", "USD → JPY exchange rate"),
+                List.of("Show me the exchange rates from EUR", "What are the rates from EUR?"),
+                List.of("List all rates from EUR", "rates from EUR"),
+                List.of("Convert 100 EUR to USD", "How much is 100 EUR in USD?"),
+                List.of("What is 1 GBP worth in EUR?", "GBP to EUR conversion rate"),
+                List.of("Is there a rate for CHF to EUR?", "CHF to EUR exchange rate"),
+                List.of("What payment methods are available for USD to EUR?", "Which payment methods for USD to EUR?"),
+                List.of("Which payment methods support USD to EUR?", "What payment methods does USD to EUR support?"),
+                List.of("Payment method for USD to EUR", "payment methods for USD to EUR"),
+                List.of("What payment methods can I use for USD to EUR?", "USD to EUR payment methods"));
+    }
+
+    static Stream<List<String>> closeWording() {
+        return Stream.of(
+                List.of("EUR to USD rate", "Payment methods for EUR to USD"),
+                List.of("EUR to USD rate", "EUR to USD rate history"),
+                List.of("EUR to USD rate", "EUR to USD fee"),
+                List.of("EUR to USD rate", "EUR to USD limit"),
+                List.of("EUR to USD rate", "EUR to USD spread"),
+                List.of("EUR to USD rate", "EUR to USD rate yesterday"),
+                List.of("EUR to USD rate", "Why is the EUR to USD rate so low?"),
+                List.of("EUR to USD rate", "Is EUR to USD supported?"),
+                List.of("USD to EUR rate", "USD to EUR chart"),
+                List.of("What are the rates from EUR?", "What are the fees from EUR?"),
+                List.of("Rates from GBP", "Rates from GBP last week"),
+                List.of("Payment methods for USD to EUR", "Payment methods for USD to EUR with fees"),
+                List.of("Payment methods for USD to EUR", "Payment methods for USD to EUR that are instant"));
+    }
+
+    /**
+     * Same wording with other currencies, direction, amount or a negation - for the guard to reject
+     */
+    static Stream<List<String>> differentSpecifics() {
+        return Stream.of(
+                List.of("EUR to USD rate", "USD to EUR rate"),
+                List.of("EUR to USD rate", "EUR to GBP rate"),
+                List.of("Rates from EUR", "Rates to EUR"),
+                List.of("Convert 100 EUR to USD", "Convert 200 EUR to USD"),
+                List.of("Convert 100 EUR to USD", "EUR to USD rate"),
+                List.of("Which payment methods support USD to EUR?", "Which payment methods do not support USD to EUR?"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "similarityThreshold", THRESHOLD);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+
+        List<ExchangeRate> rates = List.of(
+                ExchangeRateIndexTest.rate("EUR", "USD", 1.09), ExchangeRateIndexTest.rate("USD", "EUR", 0.92),
+                ExchangeRateIndexTest.rate("GBP", "USD", 1.27), ExchangeRateIndexTest.rate("GBP", "EUR", 1.17),
+                ExchangeRateIndexTest.rate("USD", "JPY", 149.5), ExchangeRateIndexTest.rate("CHF", "EUR", 1.05));
+        when(snapshotService.getSnapshot())
+                .thenReturn(new ExchangeRateSnapshotService.Snapshot(ExchangeRateIndex.of(rates), Instant.now()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("paraphrases")
+    void paraphraseIsAnsweredFromTheCache(List<String> pair) {
+        cache.put(normalize(pair.get(0)), "cached", RATES, cache.generation());
+
+        assertThat(similarity(pair)).isGreaterThanOrEqualTo(THRESHOLD);
+        assertThat(cache.get(normalize(pair.get(1)))).isEqualTo("cached");
+    }
+
+    @ParameterizedTest
+    @MethodSource({"closeWording", "differentSpecifics"})
+    void differentQuestionIsAMiss(List<String> pair) {
+        cache.put(normalize(pair.get(0)), "cached", RATES, cache.generation());
+
+        assertThat(cache.get(normalize(pair.get(1)))).isNull();
+    }
+
+    @Test
+    void thresholdSitsBetweenTheLabelledSets() {
+        double lowestParaphrase = paraphrases().mapToDouble(SemanticAnswerCacheTest::similarity).min().orElseThrow();
+        double highestOther = closeWording().mapToDouble(SemanticAnswerCacheTest::similarity).max().orElseThrow();
+
+        assertThat(lowestParaphrase).isGreaterThan(0.95);
+        assertThat(highestOther).isLessThan(0.85);
+    }
+
+    @Test
+    void questionFramesAreStripped() {
+        assertThat(SemanticAnswerCache.content(normalize("How much is a EUR in USD?"))).isEqualTo("eur usd");
+        assertThat(SemanticAnswerCache.content(normalize("What are the payment methods from EUR to USD"))).isEqualTo("payment method eur usd");
+        assertThat(SemanticAnswerCache.content(normalize("What is the rate?"))).isEmpty();
+    }
+
+    @Test
+    void questionsWithNothingLeftAfterTheFrameNeverMatch() {
+        cache.put(normalize("What is the rate?"), "cached", RATES, cache.generation());
+
+        assertThat(cache.get(normalize("What is the rate?"))).isNull();
+    }
+
+    @Test
+    void invalidationDropsDependentAnswers() {
+        cache.put(normalize("EUR to USD rate"), "cached", RATES, cache.generation());
+        cache.put(normalize("GBP to USD rate"), "other", Set.of(), cache.generation());
+
+        assertThat(cache.invalidateDependingOn(GetExchangeRatesTool.NAME)).isEqualTo(1);
+        assertThat(cache.get(normalize("What is the EUR to USD rate?"))).isNull();
+        assertThat(cache.get(normalize("What is the GBP to USD rate?"))).isEqualTo("other");
+    }
+
+    @Test
+    void dropsAnAnswerWhoseToolDataChangedWhileItWasComputed() {
+        long generation = cache.generation();
+        cache.onExchangeRatesChanged(new ExchangeRatesChangedEvent(Instant.now(), 6));
+        cache.put(normalize("EUR to USD rate"), "from the old snapshot", RATES, generation);
+
+        assertThat(cache.get(normalize("What is the EUR to USD rate?"))).isNull();
+        assertThat(cache.getStats()).containsEntry("staleDrops", 1L);
+
+        cache.put(normalize("EUR to USD rate"), "from the new snapshot", RATES, cache.generation());
+        assertThat(cache.get(normalize("What is the EUR to USD rate?"))).isEqualTo("from the new snapshot");
+    }
+
+    private static double similarity(List<String> pair) {
+        return NGramVectorizer.dot(
+                NGramVectorizer.vectorize(SemanticAnswerCache.content(normalize(pair.get(0)))),
+                NGramVectorizer.vectorize(SemanticAnswerCache.content(normalize(pair.get(1)))));
+    }
+
+    private static String normalize(String question) {
+        return QuestionNormalizer.normalize(question);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.mcpgateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("usd eur", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "0.92";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flights.execute("usd eur", () -> {
+            runs.incrementAndGet();
+            return "computed twice";
+        }));
+        awaitShared(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("0.92");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("0.92");
+        assertThat(runs).hasValue(1);
+        assertThat(flights.getStats()).containsEntry("executions", 1L).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void sharersSeeTheLeadersFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("usd eur", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("gateway down");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flights.execute("usd eur", () -> "unused"));
+        awaitShared(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("gateway down");
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("gateway down");
+    }
+
+    @Test
+    void failureIsNotRememberedForLaterCallers() {
+        assertThatThrownBy(() -> flights.execute("usd eur", () -> {
+            throw new IllegalStateException("gateway down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flights.execute("usd eur", () -> "0.92")).isEqualTo("0.92");
+        assertThat(flights.getStats()).containsEntry("executions", 2L).containsEntry("shared", 0L);
+    }
+
+    @Test
+    void differentKeysRunIndependently() {
+        assertThat(flights.execute("usd eur", () -> "0.92")).isEqualTo("0.92");
+        assertThat(flights.execute("eur usd", () -> "1.09")).isEqualTo("1.09");
+        assertThat(flights.getStats()).containsEntry("executions", 2L);
+    }
+
+    @Test
+    void asyncCallersShareTheInFlightFuture() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        AtomicInteger starts = new AtomicInteger();
+
+        CompletableFuture<String> first = flights.executeAsync("usd eur", () -> {
+            starts.incrementAndGet();
+            return work;
+        });
+        CompletableFuture<String> second = flights.executeAsync("usd eur", () -> {
+            starts.incrementAndGet();
+            return CompletableFuture.completedFuture("started twice");
+        });
+        work.complete("0.92");
+
+        assertThat(first.join()).isEqualTo("0.92");
+        assertThat(second.join()).isEqualTo("0.92");
+        assertThat(starts).hasValue(1);
+        assertThat(flights.getStats()).containsEntry("shared", 1L).containsEntry("collapseRatio", 0.5);
+    }
+
+    @Test
+    void asyncFailureReachesEverySharerAndUnregisters() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("usd eur", () -> work);
+        CompletableFuture<String> second = flights.executeAsync("usd eur", () -> work);
+        work.completeExceptionally(new IllegalStateException("gateway down"));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("gateway down");
+        assertThatThrownBy(second::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("gateway down");
+        assertThat(flights.getStats()).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void asyncWorkThatThrowsWhileStartingIsUnregistered() {
+        assertThatThrownBy(() -> flights.executeAsync("usd eur", () -> {
+            throw new IllegalStateException("no connection");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flights.getStats()).containsEntry("inFlight", 0);
+        assertThat(flights.executeAsync("usd eur", () -> CompletableFuture.completedFuture("0.92")).join()).isEqualTo("0.92");
+    }
+
+    private void awaitShared(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) flights.getStats().get("shared") < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(flights.getStats()).containsEntry("shared", count);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
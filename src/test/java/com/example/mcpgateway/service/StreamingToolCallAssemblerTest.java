@@ -0,0 +1,106 @@
+package com.example.mcpgateway.service;
+
+import com.example.mcpgateway.dto.OllamaChatChunk;
+import com.example.mcpgateway.dto.ToolCall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingToolCallAssemblerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ToolCall> dispatched = new ArrayList<>();
+    private final StreamingToolCallAssembler assembler = new StreamingToolCallAssembler(objectMapper, dispatched::add);
+
+    @Test
+    void joinsArgumentsSplitAcrossChunks() throws Exception {
+        chunk("{\"index\":0,\"id\":\"call_1\",\"type\":\"function\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":\"\"}}");
+        chunk("{\"index\":0,\"function\":{\"arguments\":\"{\\\"fromCur\"}}");
+        chunk("{\"index\":0,\"function\":{\"arguments\":\"rency\\\": \\\"USD\\\", \\\"toCurrency\"}}");
+        chunk("{\"index\":0,\"function\":{\"arguments\":\"\\\": \\\"EUR\\\"}\"}}");
+        assertThat(dispatched).isEmpty();
+
+        assembler.finish();
+
+        assertThat(dispatched).hasSize(1);
+        ToolCall call = dispatched.get(0);
+        assertThat(call.getId()).isEqualTo("call_1");
+        assertThat(call.getName()).isEqualTo("get_exchange_rates");
+        assertThat(call.getArguments()).isEqualTo(Map.of("fromCurrency", "USD", "toCurrency", "EUR"));
+    }
+
+    @Test
+    void completesACallAsSoonAsTheNextIndexStarts() throws Exception {
+        chunk("{\"index\":0,\"id\":\"call_1\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":\"{\\\"fromCurrency\\\":\\\"USD\\\"}\"}}");
+        assertThat(dispatched).isEmpty();
+
+        chunk("{\"index\":1,\"id\":\"call_2\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":\"{\\\"fromCur\"}}");
+        assertThat(dispatched).extracting(ToolCall::getId).containsExactly("call_1");
+
+        chunk("{\"index\":1,\"function\":{\"arguments\":\"rency\\\":\\\"EUR\\\"}\"}}");
+        assembler.finish();
+
+        assertThat(dispatched).extracting(ToolCall::getId).containsExactly("call_1", "call_2");
+        assertThat(dispatched.get(1).getArguments()).isEqualTo(Map.of("fromCurrency", "EUR"));
+        assertThat(assembler.getCompleted()).isEqualTo(dispatched);
+    }
+
+    @Test
+    void handlesSeveralCallsInOneChunk() throws Exception {
+        assembler.accept(List.of(
+                delta("{\"index\":0,\"id\":\"call_1\",\"function\":{\"name\":\"a\",\"arguments\":\"{}\"}}"),
+                delta("{\"index\":1,\"id\":\"call_2\",\"function\":{\"name\":\"b\",\"arguments\":\"{}\"}}")));
+        assembler.finish();
+
+        assertThat(dispatched).extracting(ToolCall::getName).containsExactly("a", "b");
+    }
+
+    @Test
+    void missingIndexMeansTheFirstCall() throws Exception {
+        chunk("{\"id\":\"call_1\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":\"{\\\"fromCurrency\\\":\"}}");
+        chunk("{\"function\":{\"arguments\":\"\\\"USD\\\"}\"}}");
+        assembler.finish();
+
+        assertThat(dispatched).hasSize(1);
+        assertThat(dispatched.get(0).getArguments()).isEqualTo(Map.of("fromCurrency", "USD"));
+    }
+
+    @Test
+    void generatesAnIdWhenTheModelSendsNone() throws Exception {
+        chunk("{\"index\":0,\"function\":{\"name\":\"get_exchange_rates\"}}");
+        assembler.finish();
+
+        assertThat(dispatched.get(0).getId()).startsWith("call_");
+        assertThat(dispatched.get(0).getArguments()).isEmpty();
+    }
+
+    @Test
+    void dropsCallsWithoutAName() throws Exception {
+        chunk("{\"index\":0,\"id\":\"call_1\",\"function\":{\"arguments\":\"{}\"}}");
+        assembler.finish();
+
+        assertThat(dispatched).isEmpty();
+    }
+
+    @Test
+    void keepsTheCallWhenItsArgumentsAreNotValidJson() throws Exception {
+        chunk("{\"index\":0,\"id\":\"call_1\",\"function\":{\"name\":\"get_exchange_rates\",\"arguments\":\"{\\\"fromCurrency\\\":\"}}");
+        assembler.finish();
+
+        assertThat(dispatched).hasSize(1);
+        assertThat(dispatched.get(0).getArguments()).isEmpty();
+    }
+
+    private void chunk(String json) throws Exception {
+        assembler.accept(List.of(delta(json)));
+    }
+
+    private OllamaChatChunk.ToolCallDelta delta(String json) throws Exception {
+        return objectMapper.readValue(json, OllamaChatChunk.ToolCallDelta.class);
+    }
+}
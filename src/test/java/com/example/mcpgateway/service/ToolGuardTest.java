@@ -0,0 +1,158 @@
+package com.example.mcpgateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolGuardTest {
+
+    private static final String ARGS = ToolGuard.argumentsKey(Map.of("fromCurrency", "USD"));
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        guard.onSuccess(ARGS, "ok");
+        failCalls(guard, 2);
+        assertThat(state(guard)).isEqualTo("CLOSED");
+
+        failCalls(guard, 1);
+        assertThat(state(guard)).isEqualTo("OPEN");
+        assertThat(guard.allowRequest()).isFalse();
+        assertThat(guard.getStats()).containsEntry("circuitRejections", 1L);
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        failCalls(guard, 3);
+
+        assertThat(state(guard)).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void halfOpenLetsASingleProbeThroughAndClosesOnItsSuccess() {
+        ToolGuard guard = guard(Duration.ZERO);
+        failCalls(guard, 4);
+        assertThat(state(guard)).isEqualTo("OPEN");
+
+        assertThat(guard.allowRequest()).isTrue();
+        assertThat(state(guard)).isEqualTo("HALF_OPEN");
+        assertThat(guard.allowRequest()).isFalse();
+        assertThat(guard.allowRequest()).isFalse();
+
+        guard.onSuccess(ARGS, "ok");
+
+        assertThat(state(guard)).isEqualTo("CLOSED");
+        assertThat(guard.getStats()).containsEntry("windowCalls", 1).containsEntry("windowFailureRate", 0.0);
+        assertThat(guard.allowRequest()).isTrue();
+        assertThat(guard.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() {
+        ToolGuard guard = guard(Duration.ofMillis(50));
+        failCalls(guard, 4);
+
+        assertThat(guard.allowRequest()).isFalse();
+        sleep(60);
+        assertThat(guard.allowRequest()).isTrue();
+        guard.onFailure();
+
+        assertThat(state(guard)).isEqualTo("OPEN");
+        assertThat(guard.allowRequest()).isFalse();
+    }
+
+    @Test
+    void oldOutcomesLeaveTheRollingWindow() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        failCalls(guard, 2);
+        for (int i = 0; i < 8; i++) {
+            guard.onSuccess(ARGS, "ok");
+        }
+        failCalls(guard, 3);
+
+        // Window of 8: 3 failures out of the last 8 calls stays under 50%
+        assertThat(state(guard)).isEqualTo("CLOSED");
+        assertThat(guard.getStats()).containsEntry("windowCalls", 8);
+    }
+
+    @Test
+    void bulkheadRejectsCallsOverItsLimit() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        assertThat(guard.tryEnterBulkhead()).isTrue();
+        assertThat(guard.tryEnterBulkhead()).isTrue();
+        assertThat(guard.tryEnterBulkhead()).isFalse();
+
+        guard.leaveBulkhead();
+        assertThat(guard.tryEnterBulkhead()).isTrue();
+        assertThat(guard.getStats()).containsEntry("bulkheadRejections", 1L).containsEntry("inFlight", 2);
+    }
+
+    @Test
+    void fallbackServesTheLastGoodResultPerArguments() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        guard.onSuccess(ARGS, "old");
+        guard.onSuccess(ARGS, "new");
+
+        assertThat(guard.fallback(ARGS).result()).isEqualTo("new");
+        assertThat(guard.fallback(ToolGuard.argumentsKey(Map.of("fromCurrency", "EUR")))).isNull();
+    }
+
+    @Test
+    void fallbackKeepsOnlyTheMostRecentlyUsedEntries() {
+        ToolGuard guard = guard(Duration.ofMinutes(1));
+
+        guard.onSuccess("a", "1");
+        guard.onSuccess("b", "2");
+        guard.fallback("a");
+        guard.onSuccess("c", "3");
+
+        assertThat(guard.fallback("a")).isNotNull();
+        assertThat(guard.fallback("b")).isNull();
+        assertThat(guard.fallback("c")).isNotNull();
+    }
+
+    @Test
+    void argumentsKeyIgnoresArgumentOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("fromCurrency", "USD");
+        first.put("toCurrency", "EUR");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("toCurrency", "EUR");
+        second.put("fromCurrency", "USD");
+
+        assertThat(ToolGuard.argumentsKey(first)).isEqualTo(ToolGuard.argumentsKey(second));
+        assertThat(ToolGuard.argumentsKey(null)).isEqualTo("{}");
+    }
+
+    private static ToolGuard guard(Duration openDuration) {
+        return new ToolGuard("get_exchange_rates", new ToolGuard.Settings(2, 8, 4, 0.5, openDuration, 2));
+    }
+
+    private static void failCalls(ToolGuard guard, int count) {
+        for (int i = 0; i < count; i++) {
+            guard.onFailure();
+        }
+    }
+
+    private static String state(ToolGuard guard) {
+        return (String) guard.getStats().get("state");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}